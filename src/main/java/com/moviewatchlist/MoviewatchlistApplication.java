@@ -1,9 +1,30 @@
 package com.moviewatchlist;
 
+import com.moviewatchlist.client.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Entry point of the Movie Watchlist Spring Boot application.
@@ -26,9 +47,116 @@ public class MoviewatchlistApplication {
     /**
      * Registers a singleton RestTemplate bean in the application context.
      * This allows it to be injected into other components like services.
+     * It sends its requests through the shared {@link HttpClient}.
+     */
+    @Bean
+    public RestTemplate restTemplate(HttpClient httpClient) {
+        return new RestTemplate(new JdkClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Registers the single {@link HttpClient} used for all outbound calls, so that
+     * connections are pooled instead of a new client being created per request.
+     * <p>
+     * Blocking {@code send} calls run on the caller's thread. The client keeps its own
+     * internal executor on purpose: sharing the bounded {@code upstreamExecutor} would
+     * deadlock once all of its threads are blocked in {@code send}.
+     */
+    @Bean
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Registers the executor for blocking calls to the upstream APIs (OMDb, TMDB, image CDN).
+     * <p>
+     * With {@code spring.threads.virtual.enabled=true} on Java 21+, every task gets its own
+     * virtual thread, the same mode Spring Boot then uses for Tomcat's request threads.
+     * Otherwise a fixed pool of {@code upstream.threads} platform threads is used.
+     */
+    @Bean
+    public Executor upstreamExecutor(Environment environment,
+                                     @Value("${upstream.threads:64}") int threads) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("upstream-");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "upstream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers the limiter shared by all TMDB calls, so that bursts of cache misses
+     * (e.g. a batch of similar-movie lookups) stay below TMDB's request rate limit.
+     */
+    @Bean
+    public RateLimiter tmdbRateLimiter(@Value("${tmdb.rate-limit.per-second:40}") double permitsPerSecond,
+                                       @Value("${tmdb.rate-limit.burst:20}") int burst) {
+        return new RateLimiter(permitsPerSecond, burst);
+    }
+
+    /**
+     * Serves the {@code reactive} profile from Reactor Netty. Tomcat is on the classpath for the
+     * servlet stack and would otherwise be chosen as the reactive server too.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Profile("reactive")
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Registers the connection pool used by {@code WebClient} in the {@code reactive} profile.
+     * <p>
+     * Reactor Netty's default of 16 connections per host would cap concurrent upstream calls
+     * far below what the event loop can keep waiting, so the pool size is configurable via
+     * {@code upstream.max-connections}. Requests beyond it wait for a free connection.
+     * Idle connections are dropped before typical server-side keep-alive timeouts so that
+     * a request is not sent on a connection the server has already closed.
+     */
+    @Bean(destroyMethod = "dispose")
+    @Profile("reactive")
+    public ConnectionProvider upstreamConnectionPool(@Value("${upstream.max-connections:1000}") int maxConnections) {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .maxIdleTime(Duration.ofSeconds(20))
+                .build();
+    }
+
+    /**
+     * Makes every {@code WebClient} built by the application use the {@code upstreamConnectionPool}.
+     */
+    @Bean
+    @Profile("reactive")
+    public WebClientCustomizer upstreamWebClientCustomizer(ConnectionProvider upstreamConnectionPool) {
+        return builder -> builder.clientConnector(
+                new ReactorClientHttpConnector(reactor.netty.http.client.HttpClient.create(upstreamConnectionPool)));
+    }
+
+    /**
+     * Registers a bounded, CPU-sized thread pool for image processing (decoding, scaling, encoding).
+     * <p>
+     * It is kept separate from the threads that perform HTTP I/O so that CPU-heavy work
+     * cannot starve downloads, and vice versa. When the queue is full the submitting thread
+     * runs the task itself, which naturally throttles producers.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageProcessingExecutor() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cores * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-cpu-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 }
@@ -4,8 +4,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moviewatchlist.model.Movie;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -19,6 +21,7 @@ import java.net.http.HttpResponse;
  * into a {@link Movie} object.
  */
 @Component
+@Profile("!reactive")
 public class OmdbClient {
 
     /**
@@ -28,9 +31,31 @@ public class OmdbClient {
     private String omdbApiKey;
 
     /**
-     * Jackson object mapper for parsing JSON responses.
+     * Base URL of the OMDb API, configurable so that tests can point it at a local stub.
      */
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Value("${omdb.api.base-url:https://www.omdbapi.com}")
+    private String omdbBaseUrl;
+
+    /**
+     * Jackson object mapper for parsing JSON responses, shared across the application.
+     */
+    private final ObjectMapper mapper;
+
+    /**
+     * Shared HTTP client used to call the OMDb API.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Constructs the client with the application's shared {@link ObjectMapper} and {@link HttpClient}.
+     *
+     * @param mapper     Jackson mapper used to parse OMDb responses
+     * @param httpClient HTTP client used to send requests
+     */
+    public OmdbClient(ObjectMapper mapper, HttpClient httpClient) {
+        this.mapper = mapper;
+        this.httpClient = httpClient;
+    }
 
     /**
      * Fetches a movie from the OMDb API by its title.
@@ -41,16 +66,16 @@ public class OmdbClient {
      */
     public Movie fetchMovie(String title) {
         try {
-            String url = String.format("https://www.omdbapi.com/?t=%s&apikey=%s",
-                    title.replace(" ", "+"), omdbApiKey);
+            String url = String.format("%s/?t=%s&apikey=%s",
+                    omdbBaseUrl, title.replace(" ", "+"), omdbApiKey);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .GET()
                     .build();
 
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<InputStream> response = httpClient
+                    .send(request, HttpResponse.BodyHandlers.ofInputStream());
 
             JsonNode json = mapper.readTree(response.body());
 
@@ -63,8 +88,7 @@ public class OmdbClient {
                     .director(json.get("Director").asText())
                     .release_year(json.get("Year").asText())
                     .genre(json.get("Genre").asText())
-                    .watched(false)
-                    .rating(0)
+                    .imdbId(json.path("imdbID").asText(null))
                     .build();
 
         } catch (Exception e) {
@@ -0,0 +1,82 @@
+package com.moviewatchlist.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the rate of calls to an upstream API.
+ * <p>
+ * Permits are spaced evenly at {@code permitsPerSecond}, with up to {@code burst} permits
+ * available at once after an idle period. A caller that would have to wait longer than its
+ * timeout gets no permit and reserves nothing, so a backlog cannot build up behind it.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * Time at which the next permit is due if no burst capacity were left. Guarded by {@link #lock}.
+     */
+    private long nextPermit = System.nanoTime();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param permitsPerSecond sustained rate; {@code 0} or less disables the limit
+     * @param burst            number of permits that may be taken at once
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    /**
+     * Takes a permit, waiting for it if necessary.
+     *
+     * @param timeout how long to wait at most
+     * @return {@code true} if a permit was taken, {@code false} if none is available within the timeout
+     */
+    public boolean tryAcquire(Duration timeout) {
+        return tryAcquire(1, timeout);
+    }
+
+    /**
+     * Takes several permits at once, waiting for them if necessary.
+     *
+     * @param permits number of permits
+     * @param timeout how long to wait at most
+     * @return {@code true} if the permits were taken, {@code false} if they are not available within the timeout
+     */
+    public boolean tryAcquire(int permits, Duration timeout) {
+        if (intervalNanos == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long wait;
+        lock.lock();
+        try {
+            long start = Math.max(nextPermit, now);
+            // The last of the permits must be within the burst tolerance
+            wait = start + (permits - 1) * intervalNanos - toleranceNanos - now;
+            if (wait > timeout.toNanos()) {
+                return false;
+            }
+            nextPermit = start + permits * intervalNanos;
+        } finally {
+            lock.unlock();
+        }
+
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.moviewatchlist.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.moviewatchlist.model.ReactiveMovie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Non-blocking counterpart of {@link OmdbClient}, used by the {@code reactive} profile.
+ * <p>
+ * Sends the same OMDb title lookup through {@link WebClient}, so no thread is held
+ * while waiting for the response.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveOmdbClient {
+
+    @Value("${omdb.api.key}")
+    private String omdbApiKey;
+
+    @Value("${omdb.api.base-url:https://www.omdbapi.com}")
+    private String omdbBaseUrl;
+
+    private final WebClient webClient;
+
+    /**
+     * Constructs the client from the application's {@link WebClient.Builder}.
+     *
+     * @param builder builder configured with the application's codecs
+     */
+    public ReactiveOmdbClient(WebClient.Builder builder) {
+        this.webClient = builder.build();
+    }
+
+    /**
+     * Fetches a movie from the OMDb API by its title.
+     *
+     * @param title the title of the movie to search for
+     * @return the movie metadata, or an error if the movie is not found or the request fails
+     */
+    public Mono<ReactiveMovie> fetchMovie(String title) {
+        String url = String.format("%s/?t=%s&apikey=%s",
+                omdbBaseUrl, title.replace(" ", "+"), omdbApiKey);
+
+        return webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .flatMap(json -> json.has("Error")
+                        ? Mono.error(new RuntimeException("Movie not found: " + title))
+                        : Mono.just(ReactiveMovie.builder()
+                                .title(json.get("Title").asText())
+                                .director(json.get("Director").asText())
+                                .release_year(json.get("Year").asText())
+                                .genre(json.get("Genre").asText())
+                                .imdbId(json.path("imdbID").asText(null))
+                                .build()))
+                .onErrorMap(e -> new RuntimeException("Failed to fetch from OMDb: " + e.getMessage(), e));
+    }
+}
@@ -0,0 +1,132 @@
+package com.moviewatchlist.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link TmdbClient}, used by the {@code reactive} profile.
+ * <p>
+ * Responses are collected as {@link DataBuffer}s and read with the same token-streaming
+ * {@link TmdbResponseParser}, so large responses are never turned into a JSON tree.
+ * Requests take their permits from the same limiter as {@link TmdbClient}; waiting for
+ * one happens off the event loop.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTmdbClient {
+
+    @Value("${tmdb.api.key}")
+    private String tmdbApiKey;
+
+    @Value("${tmdb.api.base-url:https://api.themoviedb.org/3}")
+    private String tmdbBaseUrl;
+
+    private final ObjectMapper mapper;
+    private final WebClient webClient;
+    private final RateLimiter rateLimiter;
+    private final Duration maxWait;
+
+    /**
+     * Constructs the client with the application's shared {@link ObjectMapper} and {@link WebClient.Builder}.
+     *
+     * @param mapper      Jackson mapper used to create streaming parsers
+     * @param builder     builder configured with the application's codecs
+     * @param rateLimiter limiter shared by all TMDB calls
+     * @param maxWait     how long a request may wait for the rate limiter before it fails
+     */
+    public ReactiveTmdbClient(ObjectMapper mapper, WebClient.Builder builder,
+                              @Qualifier("tmdbRateLimiter") RateLimiter rateLimiter,
+                              @Value("${tmdb.rate-limit.max-wait:5s}") Duration maxWait) {
+        this.mapper = mapper;
+        this.webClient = builder.build();
+        this.rateLimiter = rateLimiter;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Fetches the TMDB movie ID based on the movie title.
+     *
+     * @param title the movie title to search for
+     * @return TMDB movie ID, or an error if no movie matches
+     */
+    public Mono<Long> fetchTmdbId(String title) {
+        String query = URLEncoder.encode(title, StandardCharsets.UTF_8);
+        String url = String.format("%s/search/movie?query=%s&api_key=%s", tmdbBaseUrl, query, tmdbApiKey);
+
+        return get(url, TmdbResponseParser::readFirstResultId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("TMDB: No movie found for title: " + title)))
+                .onErrorMap(e -> new RuntimeException("Failed to fetch TMDB ID: " + e.getMessage(), e));
+    }
+
+    /**
+     * Fetches similar movie titles from TMDB using a given TMDB movie ID.
+     *
+     * @param tmdbId the TMDB movie ID
+     * @return list of similar movie titles
+     */
+    public Mono<List<String>> fetchSimilarMovies(Long tmdbId) {
+        String url = String.format("%s/movie/%d/similar?api_key=%s", tmdbBaseUrl, tmdbId, tmdbApiKey);
+
+        return get(url, TmdbResponseParser::readResultTitles)
+                .onErrorMap(e -> new RuntimeException("Failed to fetch similar movies: " + e.getMessage(), e));
+    }
+
+    /**
+     * Fetches up to {@code limit} image file paths of a movie, posters first.
+     *
+     * @param tmdbId the TMDB movie ID
+     * @param limit  maximum number of paths
+     * @return list of image file paths relative to the image CDN
+     */
+    public Mono<List<String>> fetchImagePaths(Long tmdbId, int limit) {
+        String url = String.format("%s/movie/%d/images?api_key=%s", tmdbBaseUrl, tmdbId, tmdbApiKey);
+
+        return get(url, parser -> TmdbResponseParser.readImagePaths(parser, limit))
+                .onErrorMap(e -> new RuntimeException("Failed to fetch image list: " + e.getMessage(), e));
+    }
+
+    /**
+     * Sends a GET request and reads the joined response body with a streaming parser.
+     * Completes empty if the reader returns {@code null}.
+     */
+    private <T> Mono<T> get(String url, ParserReader<T> reader) {
+        return Mono.fromCallable(() -> rateLimiter.tryAcquire(maxWait))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(acquired -> acquired
+                        ? DataBufferUtils.join(webClient.get()
+                                .uri(URI.create(url))
+                                .retrieve()
+                                .bodyToFlux(DataBuffer.class))
+                        : Mono.error(new IllegalStateException("TMDB rate limit exceeded")))
+                .mapNotNull(body -> {
+                    try (InputStream in = body.asInputStream(true);
+                         JsonParser parser = mapper.getFactory().createParser(in)) {
+                        return reader.read(parser);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Invalid TMDB response: " + e.getMessage(), e);
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ParserReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+}
@@ -1,26 +1,53 @@
 package com.moviewatchlist.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.StreamSupport;
 
 @Component
+@Profile("!reactive")
 public class TmdbClient {
 
     @Value("${tmdb.api.key}")
     private String tmdbApiKey;
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Value("${tmdb.api.base-url:https://api.themoviedb.org/3}")
+    private String tmdbBaseUrl;
+
+    private final ObjectMapper mapper;
+    private final HttpClient httpClient;
+    private final RateLimiter rateLimiter;
+    private final Duration maxWait;
+
+    /**
+     * Constructs the client with the application's shared {@link ObjectMapper} and {@link HttpClient}.
+     *
+     * @param mapper      Jackson mapper used to create streaming parsers
+     * @param httpClient  HTTP client used to send requests
+     * @param rateLimiter limiter every request has to pass
+     * @param maxWait     how long a request may wait for the rate limiter before it fails
+     */
+    public TmdbClient(ObjectMapper mapper, HttpClient httpClient,
+                      @Qualifier("tmdbRateLimiter") RateLimiter rateLimiter,
+                      @Value("${tmdb.rate-limit.max-wait:5s}") Duration maxWait) {
+        this.mapper = mapper;
+        this.httpClient = httpClient;
+        this.rateLimiter = rateLimiter;
+        this.maxWait = maxWait;
+    }
 
     /**
      * Fetches the TMDB movie ID based on the movie title.
@@ -31,24 +58,26 @@ public class TmdbClient {
     public Long fetchTmdbId(String title) {
         try {
             String query = URLEncoder.encode(title, StandardCharsets.UTF_8);
-            String url = String.format("https://api.themoviedb.org/3/search/movie?query=%s&api_key=%s", query, tmdbApiKey);
+            String url = String.format("%s/search/movie?query=%s&api_key=%s", tmdbBaseUrl, query, tmdbApiKey);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .GET()
                     .build();
 
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<InputStream> response = send(request);
 
-            JsonNode root = mapper.readTree(response.body());
-            JsonNode results = root.path("results");
+            // Only results[0].id is needed, so stop reading as soon as it is found
+            Long id;
+            try (JsonParser parser = mapper.getFactory().createParser(response.body())) {
+                id = TmdbResponseParser.readFirstResultId(parser);
+            }
 
-            if (!results.isArray() || results.isEmpty()) {
+            if (id == null) {
                 throw new RuntimeException("TMDB: No movie found for title: " + title);
             }
 
-            return results.get(0).get("id").asLong();
+            return id;
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch TMDB ID: " + e.getMessage(), e);
@@ -63,27 +92,29 @@ public class TmdbClient {
      */
     public List<String> fetchSimilarMovies(Long tmdbId) {
         try {
-            String url = String.format("https://api.themoviedb.org/3/movie/%d/similar?api_key=%s", tmdbId, tmdbApiKey);
+            String url = String.format("%s/movie/%d/similar?api_key=%s", tmdbBaseUrl, tmdbId, tmdbApiKey);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .GET()
                     .build();
 
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-
-            JsonNode root = mapper.readTree(response.body());
-            JsonNode results = root.path("results");
+            HttpResponse<InputStream> response = send(request);
 
-            // Using Java Streams to transform the result into a list of titles
-            return StreamSupport.stream(results.spliterator(), false)
-                    .map(node -> node.path("title").asText())
-                    .toList();
+            try (JsonParser parser = mapper.getFactory().createParser(response.body())) {
+                return TmdbResponseParser.readResultTitles(parser);
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch similar movies: " + e.getMessage(), e);
         }
     }
 
+    private HttpResponse<InputStream> send(HttpRequest request) throws Exception {
+        if (!rateLimiter.tryAcquire(maxWait)) {
+            throw new IllegalStateException("TMDB rate limit exceeded");
+        }
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
 }
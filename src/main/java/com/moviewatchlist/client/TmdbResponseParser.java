@@ -0,0 +1,162 @@
+package com.moviewatchlist.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-streaming readers for TMDB API responses.
+ * <p>
+ * TMDB responses are much larger than the few fields we actually use (the images
+ * endpoint alone lists hundreds of posters and backdrops), so instead of building a
+ * full {@code JsonNode} tree these methods walk the {@link JsonParser} token stream,
+ * skip everything they are not interested in and stop as soon as the needed values
+ * have been read.
+ */
+public final class TmdbResponseParser {
+
+    private TmdbResponseParser() {
+    }
+
+    /**
+     * Reads {@code results[0].id} from a search response.
+     *
+     * @param parser parser positioned before the root object
+     * @return the id of the first result, or {@code null} if there are no results
+     * @throws IOException if the response is not valid JSON
+     */
+    public static Long readFirstResultId(JsonParser parser) throws IOException {
+        if (!seekTopLevelArray(parser, "results") || parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(name) && value.isNumeric()) {
+                return parser.getLongValue();
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the {@code title} of every entry in the {@code results} array.
+     *
+     * @param parser parser positioned before the root object
+     * @return list of titles, empty if the response has no results
+     * @throws IOException if the response is not valid JSON
+     */
+    public static List<String> readResultTitles(JsonParser parser) throws IOException {
+        List<String> titles = new ArrayList<>();
+        if (!seekTopLevelArray(parser, "results")) {
+            return titles;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String title = readStringField(parser, "title");
+            titles.add(title != null ? title : "");
+        }
+        return titles;
+    }
+
+    /**
+     * Reads up to {@code limit} image file paths from an images response.
+     * Posters are preferred; backdrops are only used to fill up the remaining slots.
+     * Parsing stops as soon as {@code limit} posters have been collected.
+     *
+     * @param parser parser positioned before the root object
+     * @param limit  maximum number of paths to return
+     * @return list of {@code file_path} values, posters first
+     * @throws IOException if the response is not valid JSON
+     */
+    public static List<String> readImagePaths(JsonParser parser, int limit) throws IOException {
+        List<String> posters = new ArrayList<>(limit);
+        List<String> backdrops = new ArrayList<>(limit);
+
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_ARRAY && "posters".equals(name)) {
+                    readFilePaths(parser, posters, limit);
+                    if (posters.size() >= limit) {
+                        break;
+                    }
+                } else if (value == JsonToken.START_ARRAY && "backdrops".equals(name)) {
+                    readFilePaths(parser, backdrops, limit);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        List<String> paths = new ArrayList<>(limit);
+        paths.addAll(posters);
+        for (int i = 0; i < backdrops.size() && paths.size() < limit; i++) {
+            paths.add(backdrops.get(i));
+        }
+        return paths;
+    }
+
+    /**
+     * Collects {@code file_path} values of an array of image objects into {@code target}
+     * until it holds {@code limit} entries, then skips the rest of the array.
+     */
+    private static void readFilePaths(JsonParser parser, List<String> target, int limit) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (target.size() >= limit) {
+                parser.skipChildren();
+                continue;
+            }
+            String path = readStringField(parser, "file_path");
+            if (path != null) {
+                target.add(path);
+            }
+        }
+    }
+
+    /**
+     * Advances through the root object until the given field holding an array is reached.
+     *
+     * @return {@code true} if the parser is now positioned on the array's START_ARRAY token
+     */
+    private static boolean seekTopLevelArray(JsonParser parser, String field) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals(name) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the current value and returns the given string field if it is an object
+     * containing one. Any other value is skipped.
+     */
+    private static String readStringField(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (result == null && field.equals(name) && value == JsonToken.VALUE_STRING) {
+                result = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+}
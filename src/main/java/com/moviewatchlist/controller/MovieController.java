@@ -1,107 +1,340 @@
 package com.moviewatchlist.controller;
 
 import com.moviewatchlist.dto.MovieDTO;
-import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.dto.MovieFilter;
+import com.moviewatchlist.dto.MoviePage;
+import com.moviewatchlist.dto.SimilarMoviesBatch;
+import com.moviewatchlist.dto.WatchlistStats;
+import com.moviewatchlist.service.IdempotencyStore;
 import com.moviewatchlist.service.MovieService;
-import org.springframework.data.domain.Page;
+import com.moviewatchlist.service.UpstreamCache;
+import com.moviewatchlist.service.WatchlistEventBus;
+import com.moviewatchlist.service.WatchlistVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.OptionalLong;
 
 /**
  * REST controller for managing the movie watchlist.
  * <p>
  * Provides endpoints to add, retrieve, update, and delete movies,
  * as well as to fetch similar movies and update metadata like "watched" status and rating.
+ * <p>
+ * Every endpoint is scoped to the user identified by the {@value #USER_HEADER} request header.
+ * Reads of the watchlist carry a weak ETag of the user's watchlist version; a request whose
+ * {@code If-None-Match} still matches gets {@code 304 Not Modified} without a database query.
  */
 @RestController
 @RequestMapping("/movies")
+@Profile("!reactive")
 public class MovieController {
 
+    /**
+     * Request header carrying the id of the user whose watchlist is accessed.
+     */
+    public static final String USER_HEADER = "X-User-Id";
+
+    /**
+     * Optional request header that makes a retried {@code POST /movies} return the original result.
+     */
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    /**
+     * Clients may keep watchlist responses but have to revalidate them with their ETag.
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final MovieService service;
+    private final IdempotencyStore idempotencyStore;
+    private final WatchlistEventBus eventBus;
+    private final WatchlistVersions versions;
+    private final long eventStreamTimeoutMillis;
+    private final int maxBatchIds;
 
     /**
      * Constructs the controller with injected movie service.
      *
-     * @param service the service layer for movie operations
+     * @param service            the service layer for movie operations
+     * @param idempotencyStore   results of requests sent with an {@value #IDEMPOTENCY_HEADER}
+     * @param eventBus           source of the watchlist change events
+     * @param versions           watchlist versions the ETags are derived from
+     * @param eventStreamTimeout how long an event stream stays open before the client has to reconnect
+     * @param maxBatchIds        maximum number of ids in one batch request
      */
-    public MovieController(MovieService service) {
+    public MovieController(MovieService service, IdempotencyStore idempotencyStore, WatchlistEventBus eventBus,
+                           WatchlistVersions versions,
+                           @Value("${events.timeout:30m}") Duration eventStreamTimeout,
+                           @Value("${batch.max-ids:100}") int maxBatchIds) {
         this.service = service;
+        this.idempotencyStore = idempotencyStore;
+        this.eventBus = eventBus;
+        this.versions = versions;
+        this.eventStreamTimeoutMillis = eventStreamTimeout.toMillis();
+        this.maxBatchIds = maxBatchIds;
     }
 
     /**
      * Adds a new movie to the watchlist based on its title.
+     * Adding a movie that is already on the watchlist returns the existing entry.
      *
-     * @param dto a DTO containing the title of the movie
-     * @return HTTP 201 Created if the movie is successfully added
+     * @param userId         the user whose watchlist is modified
+     * @param idempotencyKey optional key; a retry with the same key returns the original result
+     * @param dto            a DTO containing the title of the movie
+     * @return HTTP 201 Created with the watchlist entry
      */
     @PostMapping
-    public ResponseEntity<Void> addMovie(@RequestBody MovieDTO dto) {
-        service.addMovie(dto.getTitle());
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+    public ResponseEntity<MovieDTO> addMovie(@RequestHeader(USER_HEADER) String userId,
+                                             @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                             @RequestBody MovieDTO dto) {
+        MovieDTO added = idempotencyKey == null
+                ? service.addMovie(userId, dto.getTitle())
+                : idempotencyStore.execute(userId, idempotencyKey, dto.getTitle(),
+                        () -> service.addMovie(userId, dto.getTitle()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(added);
     }
 
     /**
-     * Retrieves a paginated list of movies from the watchlist.
+     * Retrieves a paginated list of movies from the watchlist, optionally filtered,
+     * e.g. {@code GET /movies?genre=Drama&watched=false&minRating=4}.
      *
-     * @param page the page number (default is 0)
-     * @param size the number of elements per page (default is 10)
-     * @return a paginated response of movies
+     * @param userId  the user whose watchlist is read
+     * @param page    the page number (default is 0)
+     * @param size    the number of elements per page (default is 10)
+     * @param filter  optional {@code genre}, {@code director}, {@code watched} and {@code minRating}
+     * @param request used to answer a matching {@code If-None-Match} with 304
+     * @return a paginated response of movies, or 304 if the client's copy is current
      */
     @GetMapping
-    public Page<Movie> getAllMovies(@RequestParam(defaultValue = "0") int page,
-                                    @RequestParam(defaultValue = "10") int size) {
-        return service.getAllMovies(page, size);
+    public ResponseEntity<MoviePage> getAllMovies(@RequestHeader(USER_HEADER) String userId,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "10") int size,
+                                                  MovieFilter filter, WebRequest request) {
+        // Read the version before the query: a change committed in between makes the tag stale, never the body
+        String etag = versions.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(MoviePage.of(service.findMovies(userId, filter, page, size)));
+    }
+
+    /**
+     * Summarizes the watchlist: number of movies, watched and rated movies, average rating
+     * and movies per genre.
+     *
+     * @param userId  the user whose watchlist is read
+     * @param request used to answer a matching {@code If-None-Match} with 304
+     * @return the statistics, or 304 if the client's copy is current
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<WatchlistStats> getStats(@RequestHeader(USER_HEADER) String userId, WebRequest request) {
+        String etag = versions.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(service.getStats(userId));
+    }
+
+    /**
+     * Retrieves several movies of the watchlist by id, e.g. {@code GET /movies?ids=1,2,3}.
+     *
+     * @param userId  the user whose watchlist is read
+     * @param ids     the IDs of the movies
+     * @param request used to answer a matching {@code If-None-Match} with 304
+     * @return the movies in request order, without ids that are not on the watchlist
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<MovieDTO>> getMovies(@RequestHeader(USER_HEADER) String userId,
+                                                    @RequestParam List<Long> ids, WebRequest request) {
+        checkBatchSize(ids);
+        String etag = versions.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(service.getMovies(userId, ids));
+    }
+
+    /**
+     * Streams changes of the user's watchlist as Server-Sent Events: {@code added},
+     * {@code deleted}, {@code watched}, {@code rated} and {@code image-ready}, each with the
+     * entry as JSON. A client that reconnects with {@code Last-Event-ID} receives the events
+     * it missed; if they are no longer available, e.g. because the id was issued by another
+     * instance, it receives a {@code reset} event and should reload its watchlist with {@code GET /movies}.
+     *
+     * @param userId      the user whose watchlist is observed
+     * @param lastEventId id of the last event received before reconnecting
+     * @return the event stream
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(USER_HEADER) String userId,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(eventStreamTimeoutMillis);
+        WatchlistEventBus.Subscription subscription = eventBus.subscribe(userId, lastEventId, new SseSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
     }
 
     /**
      * Updates the "watched" status of a specific movie.
      *
+     * @param userId  the user whose watchlist is modified
      * @param id      the ID of the movie
      * @param watched the new watched status
      * @return HTTP 200 OK on success
      */
     @PutMapping("/{id}/watched")
-    public ResponseEntity<Void> updateWatched(@PathVariable Long id, @RequestParam boolean watched) {
-        service.updateWatched(id, watched);
+    public ResponseEntity<Void> updateWatched(@RequestHeader(USER_HEADER) String userId,
+                                              @PathVariable Long id, @RequestParam boolean watched) {
+        service.updateWatched(userId, id, watched);
         return ResponseEntity.ok().build();
     }
 
     /**
      * Updates the rating of a specific movie.
      *
+     * @param userId the user whose watchlist is modified
      * @param id     the ID of the movie
      * @param rating the new rating (1–5)
      * @return HTTP 200 OK on success
      */
     @PutMapping("/{id}/rating")
-    public ResponseEntity<Void> updateRating(@PathVariable Long id, @RequestParam int rating) {
-        service.updateRating(id, rating);
+    public ResponseEntity<Void> updateRating(@RequestHeader(USER_HEADER) String userId,
+                                             @PathVariable Long id, @RequestParam int rating) {
+        service.updateRating(userId, id, rating);
         return ResponseEntity.ok().build();
     }
 
     /**
      * Deletes a movie from the watchlist.
      *
-     * @param id the ID of the movie
+     * @param userId the user whose watchlist is modified
+     * @param id     the ID of the movie
      * @return HTTP 204 No Content on successful deletion
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteMovie(@PathVariable Long id) {
-        service.deleteMovie(id);
+    public ResponseEntity<Void> deleteMovie(@RequestHeader(USER_HEADER) String userId, @PathVariable Long id) {
+        service.deleteMovie(userId, id);
         return ResponseEntity.noContent().build();
     }
 
     /**
-     * Retrieves a list of similar movie titles based on the original movie ID.
+     * Retrieves a list of similar movie titles based on the original movie ID. The weak
+     * ETag is the time the list was fetched from TMDB, so it changes whenever the list is refreshed.
      *
-     * @param id the ID of the movie
-     * @return a list of similar movie titles
+     * @param userId  the user whose watchlist is read
+     * @param id      the ID of the movie
+     * @param request used to answer a matching {@code If-None-Match} with 304
+     * @return a list of similar movie titles, or 304 if the client's copy is current
      */
     @GetMapping("/{id}/similar")
-    public List<String> getSimilarMovies(@PathVariable Long id) {
-        return service.getSimilarMovies(id);
+    public ResponseEntity<List<String>> getSimilarMovies(@RequestHeader(USER_HEADER) String userId,
+                                                         @PathVariable Long id, WebRequest request) {
+        // Resolves the entry first, so that an unknown or foreign id never gets a 304
+        OptionalLong fetchedAt = service.similarMoviesFetchedAt(userId, id);
+        if (fetchedAt.isPresent() && request.checkNotModified(similarEtag(fetchedAt.getAsLong()))) {
+            return null;
+        }
+        UpstreamCache.Timed<List<String>> similar = service.getSimilarMoviesWithFetchTime(userId, id);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(similarEtag(similar.fetchedAt()))
+                .body(similar.value());
+    }
+
+    private static String similarEtag(long fetchedAt) {
+        return "W/\"" + fetchedAt + "\"";
+    }
+
+    /**
+     * Retrieves the similar movies of several movies in one request. Lookups that fail
+     * upstream are reported in the response instead of failing the whole batch.
+     *
+     * @param userId the user whose watchlist is read
+     * @param ids    the IDs of the movies, as a JSON array
+     * @return similar movie titles by movie ID, plus the IDs that were not found or failed
+     */
+    @PostMapping("/similar:batch")
+    public SimilarMoviesBatch getSimilarMoviesBatch(@RequestHeader(USER_HEADER) String userId,
+                                                    @RequestBody List<Long> ids) {
+        checkBatchSize(ids);
+        return service.getSimilarMovies(userId, ids);
+    }
+
+    /**
+     * Returns a stored image of a movie.
+     *
+     * @param userId    the user whose watchlist is read
+     * @param id        the ID of the movie
+     * @param rendition {@code thumb}, {@code medium} or {@code original} (default)
+     * @return the JPEG image, or HTTP 404 if it is not available
+     */
+    @GetMapping("/{id}/image")
+    public ResponseEntity<Resource> getImage(@RequestHeader(USER_HEADER) String userId,
+                                             @PathVariable Long id,
+                                             @RequestParam(defaultValue = "original") String rendition) {
+        return service.getImage(userId, id, rendition)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .<Resource>body(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private void checkBatchSize(List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchIds + " ids per request");
+        }
+    }
+
+    /**
+     * Writes bus events to an SSE response.
+     */
+    private record SseSink(SseEmitter emitter) implements WatchlistEventBus.Sink {
+
+        @Override
+        public void send(WatchlistEventBus.Event event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(event.id())
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset() throws IOException {
+            emitter.send(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
     }
 }
@@ -0,0 +1,166 @@
+package com.moviewatchlist.controller;
+
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.MoviePage;
+import com.moviewatchlist.service.IdempotencyStore;
+import com.moviewatchlist.service.ReactiveMovieService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.moviewatchlist.controller.MovieController.IDEMPOTENCY_HEADER;
+import static com.moviewatchlist.controller.MovieController.USER_HEADER;
+
+/**
+ * Non-blocking REST controller for the movie watchlist, used by the {@code reactive} profile.
+ * <p>
+ * Exposes the same endpoints as {@link MovieController}, returning {@link Mono} and {@link Flux}.
+ * {@code GET /movies} additionally streams the whole watchlist as NDJSON or Server-Sent Events
+ * when the client accepts {@code application/x-ndjson} or {@code text/event-stream}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/movies")
+public class ReactiveMovieController {
+
+    private final ReactiveMovieService service;
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Constructs the controller with injected movie service.
+     *
+     * @param service          the service layer for movie operations
+     * @param idempotencyStore results of requests sent with an {@code Idempotency-Key}
+     */
+    public ReactiveMovieController(ReactiveMovieService service, IdempotencyStore idempotencyStore) {
+        this.service = service;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Adds a new movie to the watchlist based on its title.
+     * Adding a movie that is already on the watchlist returns the existing entry.
+     *
+     * @param userId         the user whose watchlist is modified
+     * @param idempotencyKey optional key; a retry with the same key returns the original result
+     * @param dto            a DTO containing the title of the movie
+     * @return HTTP 201 Created with the watchlist entry
+     */
+    @PostMapping
+    public Mono<ResponseEntity<MovieDTO>> addMovie(@RequestHeader(USER_HEADER) String userId,
+                                                   @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey,
+                                                   @RequestBody MovieDTO dto) {
+        Mono<MovieDTO> added = idempotencyKey == null
+                ? service.addMovie(userId, dto.getTitle())
+                // Other retries may wait on the same result, so a cancelled request must not cancel it
+                : Mono.defer(() -> Mono.fromFuture(idempotencyStore.executeAsync(userId, idempotencyKey, dto.getTitle(),
+                        () -> service.addMovie(userId, dto.getTitle()).toFuture()), true));
+        return added.map(movie -> ResponseEntity.status(HttpStatus.CREATED).body(movie));
+    }
+
+    /**
+     * Retrieves a paginated list of movies from the watchlist.
+     *
+     * @param userId the user whose watchlist is read
+     * @param page   the page number (default is 0)
+     * @param size   the number of elements per page (default is 10)
+     * @return a paginated response of movies
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<MoviePage> getAllMovies(@RequestHeader(USER_HEADER) String userId,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "10") int size) {
+        return service.getAllMovies(userId, page, size).map(MoviePage::of);
+    }
+
+    /**
+     * Streams the whole watchlist, one movie per NDJSON line or SSE event.
+     * Rows are fetched from the database as the client consumes them.
+     *
+     * @param userId the user whose watchlist is read
+     * @return all movies on the watchlist
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<MovieDTO> streamMovies(@RequestHeader(USER_HEADER) String userId) {
+        return service.streamMovies(userId);
+    }
+
+    /**
+     * Updates the "watched" status of a specific movie.
+     *
+     * @param userId  the user whose watchlist is modified
+     * @param id      the ID of the movie
+     * @param watched the new watched status
+     * @return HTTP 200 OK on success
+     */
+    @PutMapping("/{id}/watched")
+    public Mono<ResponseEntity<Void>> updateWatched(@RequestHeader(USER_HEADER) String userId,
+                                                    @PathVariable Long id, @RequestParam boolean watched) {
+        return service.updateWatched(userId, id, watched).thenReturn(ResponseEntity.ok().build());
+    }
+
+    /**
+     * Updates the rating of a specific movie.
+     *
+     * @param userId the user whose watchlist is modified
+     * @param id     the ID of the movie
+     * @param rating the new rating (1–5)
+     * @return HTTP 200 OK on success
+     */
+    @PutMapping("/{id}/rating")
+    public Mono<ResponseEntity<Void>> updateRating(@RequestHeader(USER_HEADER) String userId,
+                                                   @PathVariable Long id, @RequestParam int rating) {
+        return service.updateRating(userId, id, rating).thenReturn(ResponseEntity.ok().build());
+    }
+
+    /**
+     * Deletes a movie from the watchlist.
+     *
+     * @param userId the user whose watchlist is modified
+     * @param id     the ID of the movie
+     * @return HTTP 204 No Content on successful deletion
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteMovie(@RequestHeader(USER_HEADER) String userId, @PathVariable Long id) {
+        return service.deleteMovie(userId, id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Retrieves a list of similar movie titles based on the original movie ID.
+     *
+     * @param userId the user whose watchlist is read
+     * @param id     the ID of the movie
+     * @return a list of similar movie titles
+     */
+    @GetMapping("/{id}/similar")
+    public Mono<List<String>> getSimilarMovies(@RequestHeader(USER_HEADER) String userId, @PathVariable Long id) {
+        return service.getSimilarMovies(userId, id);
+    }
+
+    /**
+     * Returns a stored image of a movie.
+     *
+     * @param userId    the user whose watchlist is read
+     * @param id        the ID of the movie
+     * @param rendition {@code thumb}, {@code medium} or {@code original} (default)
+     * @return the JPEG image, or HTTP 404 if it is not available
+     */
+    @GetMapping("/{id}/image")
+    public Mono<ResponseEntity<Resource>> getImage(@RequestHeader(USER_HEADER) String userId,
+                                                   @PathVariable Long id,
+                                                   @RequestParam(defaultValue = "original") String rendition) {
+        return service.getImage(userId, id, rendition)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .<Resource>body(new FileSystemResource(path)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -1,5 +1,6 @@
 package com.moviewatchlist.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,13 +11,20 @@ import lombok.NoArgsConstructor;
  * <p>
  * This class is used to decouple the internal `Movie` entity from the external representation.
  * It can be used in request and response bodies when interacting with the Movie REST API.
+ * Fields without a value (e.g. image paths of a movie without poster) are left out of responses.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class MovieDTO {
 
+    /**
+     * Identifier of the user's watchlist entry for this movie.
+     */
+    private Long id;
+
     /**
      * The title of the movie.
      */
@@ -51,4 +59,14 @@ public class MovieDTO {
      * Path to the stored image representing the movie (e.g. poster).
      */
     private String imagePath;
+
+    /**
+     * Path to the small thumbnail rendition of the image.
+     */
+    private String thumbnailPath;
+
+    /**
+     * Path to the medium-sized rendition of the image.
+     */
+    private String mediumPath;
 }
@@ -0,0 +1,37 @@
+package com.moviewatchlist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional query parameters of {@code GET /movies} that narrow the listed movies.
+ * Unset fields do not filter.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieFilter {
+
+    /**
+     * One genre the movie must have, e.g. {@code Drama} matches {@code "Crime, Drama"} (case-insensitive).
+     */
+    private String genre;
+
+    /**
+     * One director the movie must have (case-insensitive).
+     */
+    private String director;
+
+    /**
+     * Required watched flag.
+     */
+    private Boolean watched;
+
+    /**
+     * Minimum rating (1–5).
+     */
+    private Integer minRating;
+}
@@ -0,0 +1,63 @@
+package com.moviewatchlist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * A page of a user's watchlist as returned by {@code GET /movies}.
+ * <p>
+ * Carries only what clients need to page through the list, instead of the full
+ * {@link Page} serialization with its pageable and sort metadata.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoviePage {
+
+    /**
+     * The movies on this page.
+     */
+    private List<MovieDTO> content;
+
+    /**
+     * Index of this page (zero-based).
+     */
+    private int page;
+
+    /**
+     * Requested number of movies per page.
+     */
+    private int size;
+
+    /**
+     * Number of movies on the whole watchlist.
+     */
+    private long totalElements;
+
+    /**
+     * Number of pages of the whole watchlist.
+     */
+    private int totalPages;
+
+    /**
+     * Converts a page of movies.
+     *
+     * @param page the page
+     * @return the compact representation
+     */
+    public static MoviePage of(Page<MovieDTO> page) {
+        return MoviePage.builder()
+                .content(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.moviewatchlist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of {@code POST /movies/similar:batch}: the similar titles of several watchlist
+ * entries. A failed upstream lookup does not fail the whole batch; the entry is listed in
+ * {@link #failed} and can be requested again later.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarMoviesBatch {
+
+    /**
+     * Similar titles by watchlist entry id, in request order.
+     */
+    private Map<Long, List<String>> similar;
+
+    /**
+     * Requested ids that are not on the user's watchlist.
+     */
+    private List<Long> notFound;
+
+    /**
+     * Entries whose similar titles could not be fetched from TMDB.
+     */
+    private List<Long> failed;
+}
@@ -0,0 +1,49 @@
+package com.moviewatchlist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * A change to a user's watchlist, pushed to the user's clients through {@code GET /movies/events}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistEvent {
+
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        ADDED, DELETED, WATCHED, RATED, IMAGE_READY;
+
+        /**
+         * Returns the SSE event name, e.g. {@code image-ready}.
+         *
+         * @return the event name
+         */
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    /**
+     * Kind of change.
+     */
+    private Type type;
+
+    /**
+     * Identifier of the changed watchlist entry.
+     */
+    private Long id;
+
+    /**
+     * The entry after the change; {@code null} for {@link Type#DELETED}.
+     */
+    private MovieDTO movie;
+}
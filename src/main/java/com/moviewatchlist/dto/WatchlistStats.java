@@ -0,0 +1,43 @@
+package com.moviewatchlist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Summary of a user's watchlist as returned by {@code GET /movies/stats}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistStats {
+
+    /**
+     * Number of movies on the watchlist.
+     */
+    private int total;
+
+    /**
+     * Number of movies marked as watched.
+     */
+    private int watched;
+
+    /**
+     * Number of movies with a rating.
+     */
+    private int rated;
+
+    /**
+     * Average of the ratings given, or 0 if none.
+     */
+    private double averageRating;
+
+    /**
+     * Number of movies per genre, most frequent first.
+     */
+    private Map<String, Integer> genres;
+}
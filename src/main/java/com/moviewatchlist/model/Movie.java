@@ -4,15 +4,17 @@ import jakarta.persistence.*;
 import lombok.*;
 
 /**
- * Entity class representing a movie stored in the database.
+ * Entity class representing a movie in the shared catalog.
  * <p>
- * This class maps to the "movies" table and contains basic attributes
- * such as title, director, year, genre, watched flag, rating, and image path.
+ * This class maps to the "movie_catalog" table and contains the metadata fetched
+ * once from OMDb and TMDB (title, director, year, genre and image paths).
+ * It is shared by all users; per-user state such as the watched flag and rating
+ * lives in {@link WatchlistEntry}.
  * <p>
  * Used by the JPA/Hibernate framework for persistence.
  */
 @Entity
-@Table(name = "movies")
+@Table(name = "movie_catalog")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +34,17 @@ public class Movie {
      */
     private String title;
 
+    /**
+     * Case- and whitespace-folded title used to find a movie that is already in the catalog.
+     * Unique within the catalog.
+     */
+    private String titleKey;
+
+    /**
+     * OMDb's IMDb id of the movie (e.g. {@code tt0133093}); unique within the catalog.
+     */
+    private String imdbId;
+
     /**
      * The year the movie was released.
      */
@@ -48,17 +61,17 @@ public class Movie {
     private String genre;
 
     /**
-     * Indicates whether the user has watched the movie.
+     * Path to the saved image file for the movie (poster or related visual).
      */
-    private boolean watched;
+    private String imagePath;
 
     /**
-     * The user's rating of the movie (typically 1 to 5).
+     * Path to the small thumbnail rendition of the image, used by list views.
      */
-    private int rating;
+    private String thumbnailPath;
 
     /**
-     * Path to the saved image file for the movie (poster or related visual).
+     * Path to the medium-sized rendition of the image, used by detail views.
      */
-    private String imagePath;
+    private String mediumPath;
 }
@@ -0,0 +1,70 @@
+package com.moviewatchlist.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of a movie in the shared catalog, used by the {@code reactive} profile.
+ * <p>
+ * Maps the same "movie_catalog" table as the JPA entity {@link Movie}.
+ */
+@Table("movie_catalog")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReactiveMovie {
+
+    /**
+     * Unique identifier for the movie, generated by the database.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The title of the movie.
+     */
+    private String title;
+
+    /**
+     * Case- and whitespace-folded title used to find a movie that is already in the catalog.
+     * Unique within the catalog.
+     */
+    private String titleKey;
+
+    /**
+     * OMDb's IMDb id of the movie (e.g. {@code tt0133093}); unique within the catalog.
+     */
+    private String imdbId;
+
+    /**
+     * The year the movie was released.
+     */
+    private String release_year;
+
+    /**
+     * The name of the movie's director.
+     */
+    private String director;
+
+    /**
+     * The genre(s) of the movie.
+     */
+    private String genre;
+
+    /**
+     * Path to the saved image file for the movie.
+     */
+    private String imagePath;
+
+    /**
+     * Path to the small thumbnail rendition of the image.
+     */
+    private String thumbnailPath;
+
+    /**
+     * Path to the medium-sized rendition of the image.
+     */
+    private String mediumPath;
+}
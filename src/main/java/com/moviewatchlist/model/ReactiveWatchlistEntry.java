@@ -0,0 +1,45 @@
+package com.moviewatchlist.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of a movie on one user's watchlist, used by the {@code reactive} profile.
+ * <p>
+ * Maps the same "watchlist_entry" table as the JPA entity {@link WatchlistEntry}.
+ * R2DBC has no associations, so the catalog movie is referenced by its id.
+ */
+@Table("watchlist_entry")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReactiveWatchlistEntry {
+
+    /**
+     * Unique identifier for the watchlist entry, generated by the database.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Identifier of the user who owns this entry.
+     */
+    private String userId;
+
+    /**
+     * Id of the catalog movie this entry refers to.
+     */
+    private Long movieId;
+
+    /**
+     * Indicates whether the user has watched the movie.
+     */
+    private boolean watched;
+
+    /**
+     * The user's rating of the movie (typically 1 to 5).
+     */
+    private int rating;
+}
@@ -0,0 +1,51 @@
+package com.moviewatchlist.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity class representing a movie on one user's watchlist.
+ * <p>
+ * This class maps to the "watchlist_entry" table and holds the per-user state
+ * (watched flag and rating) for a shared {@link Movie} from the catalog.
+ * <p>
+ * Used by the JPA/Hibernate framework for persistence.
+ */
+@Entity
+@Table(name = "watchlist_entry")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchlistEntry {
+
+    /**
+     * Unique identifier for the watchlist entry.
+     * Automatically generated by the database (auto-increment).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifier of the user who owns this entry.
+     */
+    private String userId;
+
+    /**
+     * The catalog movie this entry refers to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "movie_id")
+    private Movie movie;
+
+    /**
+     * Indicates whether the user has watched the movie.
+     */
+    private boolean watched;
+
+    /**
+     * The user's rating of the movie (typically 1 to 5).
+     */
+    private int rating;
+}
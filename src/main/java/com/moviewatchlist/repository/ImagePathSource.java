@@ -0,0 +1,20 @@
+package com.moviewatchlist.repository;
+
+import java.util.List;
+
+/**
+ * Source of the image paths referenced by the movie catalog.
+ * <p>
+ * Used by the image store on startup to tell referenced image directories from orphans.
+ * Implemented by the JPA {@link MovieRepository} and, in the {@code reactive} profile,
+ * by {@link ReactiveImagePathSource}.
+ */
+public interface ImagePathSource {
+
+    /**
+     * Returns the image paths of all movies that have one.
+     *
+     * @return list of stored image paths
+     */
+    List<String> findAllImagePaths();
+}
@@ -2,16 +2,90 @@ package com.moviewatchlist.repository;
 
 import com.moviewatchlist.model.Movie;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Repository interface for accessing and managing Movie entities in the database.
+ * Repository interface for accessing and managing the shared movie catalog.
  * <p>
  * Inherits standard CRUD operations (create, read, update, delete) and pagination
  * from Spring Data JPA's {@link JpaRepository}.
  * <p>
  */
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+public interface MovieRepository extends JpaRepository<Movie, Long>, ImagePathSource {
+
+    /**
+     * Returns the image paths of all movies that have one, without loading the entities.
+     *
+     * @return list of stored image paths
+     */
+    @Override
+    @Query("select m.imagePath from Movie m where m.imagePath is not null")
+    List<String> findAllImagePaths();
+
+    /**
+     * Finds a catalog movie by its lower-cased title.
+     *
+     * @param titleKey case- and whitespace-folded title
+     * @return the catalog movie, or empty if it has not been fetched yet
+     */
+    Optional<Movie> findFirstByTitleKey(String titleKey);
+
+    /**
+     * Finds a catalog movie by a requested title that OMDb resolved to it under another title.
+     *
+     * @param titleKey case- and whitespace-folded requested title
+     * @return the catalog movie, or empty if the title is no known alias
+     */
+    @Query(value = "SELECT m.* FROM movie_catalog m JOIN movie_alias a ON a.movie_id = m.id"
+            + " WHERE a.title_key = :titleKey", nativeQuery = true)
+    Optional<Movie> findFirstByAlias(@Param("titleKey") String titleKey);
+
+    /**
+     * Records a requested title as an alias of a catalog movie, replacing an older alias.
+     *
+     * @param titleKey case- and whitespace-folded requested title
+     * @param movieId  the catalog movie id
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "MERGE INTO movie_alias KEY (title_key) VALUES (:titleKey, :movieId)", nativeQuery = true)
+    void saveAlias(@Param("titleKey") String titleKey, @Param("movieId") Long movieId);
+
+    /**
+     * Finds a catalog movie by its IMDb id.
+     *
+     * @param imdbId IMDb id reported by OMDb
+     * @return the catalog movie, or empty if no movie with this id has been fetched
+     */
+    Optional<Movie> findFirstByImdbId(String imdbId);
+
+    /**
+     * Deletes a catalog movie if no user has it on their watchlist, checking and deleting
+     * in one statement so that a concurrent add of the movie either keeps it or fails.
+     *
+     * @param id the catalog movie id
+     * @return {@code 1} if the movie was deleted, {@code 0} if it is still used or already gone
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Movie m where m.id = :id"
+            + " and not exists (select e.id from WatchlistEntry e where e.movie.id = :id)")
+    int deleteIfUnused(@Param("id") Long id);
 
+    /**
+     * Returns the next batch of catalog movies in id order, for reading the whole catalog
+     * without an offset scan.
+     *
+     * @param id the last id of the previous batch, or 0 for the first batch
+     * @return up to 1000 movies with a greater id
+     */
+    List<Movie> findFirst1000ByIdGreaterThanOrderById(Long id);
 }
@@ -0,0 +1,28 @@
+package com.moviewatchlist.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Supplies the catalog's image paths to the image store in the {@code reactive} profile.
+ * <p>
+ * Only called once on startup, outside any event-loop thread, so blocking on the
+ * reactive query is acceptable here.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveImagePathSource implements ImagePathSource {
+
+    private final ReactiveMovieRepository repo;
+
+    public ReactiveImagePathSource(ReactiveMovieRepository repo) {
+        this.repo = repo;
+    }
+
+    @Override
+    public List<String> findAllImagePaths() {
+        return repo.findAllImagePaths().collectList().block();
+    }
+}
@@ -0,0 +1,72 @@
+package com.moviewatchlist.repository;
+
+import com.moviewatchlist.model.ReactiveMovie;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking R2DBC repository for the shared movie catalog, used by the {@code reactive} profile.
+ */
+@Repository
+public interface ReactiveMovieRepository extends R2dbcRepository<ReactiveMovie, Long> {
+
+    /**
+     * Returns the image paths of all movies that have one, without loading the entities.
+     *
+     * @return stream of stored image paths
+     */
+    @Query("SELECT image_path FROM movie_catalog WHERE image_path IS NOT NULL")
+    Flux<String> findAllImagePaths();
+
+    /**
+     * Finds a catalog movie by its lower-cased title.
+     *
+     * @param titleKey case- and whitespace-folded title
+     * @return the catalog movie, or empty if it has not been fetched yet
+     */
+    Mono<ReactiveMovie> findFirstByTitleKey(String titleKey);
+
+    /**
+     * Finds a catalog movie by a requested title that OMDb resolved to it under another title.
+     *
+     * @param titleKey case- and whitespace-folded requested title
+     * @return the catalog movie, or empty if the title is no known alias
+     */
+    @Query("SELECT m.* FROM movie_catalog m JOIN movie_alias a ON a.movie_id = m.id WHERE a.title_key = :titleKey")
+    Mono<ReactiveMovie> findFirstByAlias(String titleKey);
+
+    /**
+     * Records a requested title as an alias of a catalog movie, replacing an older alias.
+     *
+     * @param titleKey case- and whitespace-folded requested title
+     * @param movieId  the catalog movie id
+     * @return completes once the alias is stored
+     */
+    @Modifying
+    @Query("MERGE INTO movie_alias KEY (title_key) VALUES (:titleKey, :movieId)")
+    Mono<Void> saveAlias(String titleKey, Long movieId);
+
+    /**
+     * Finds a catalog movie by its IMDb id.
+     *
+     * @param imdbId IMDb id reported by OMDb
+     * @return the catalog movie, or empty if no movie with this id has been fetched
+     */
+    Mono<ReactiveMovie> findFirstByImdbId(String imdbId);
+
+    /**
+     * Deletes a catalog movie if no user has it on their watchlist, checking and deleting
+     * in one statement so that a concurrent add of the movie either keeps it or fails.
+     *
+     * @param id the catalog movie id
+     * @return {@code 1} if the movie was deleted, {@code 0} if it is still used or already gone
+     */
+    @Modifying
+    @Query("DELETE FROM movie_catalog WHERE id = :id"
+            + " AND NOT EXISTS (SELECT 1 FROM watchlist_entry WHERE movie_id = :id)")
+    Mono<Integer> deleteIfUnused(Long id);
+}
@@ -0,0 +1,84 @@
+package com.moviewatchlist.repository;
+
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.model.ReactiveWatchlistEntry;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking R2DBC repository for users' watchlist entries, used by the {@code reactive} profile.
+ * <p>
+ * Like {@link WatchlistEntryRepository}, all lookups are keyed by user id. List queries
+ * join the catalog and return API rows directly, since R2DBC has no associations.
+ */
+@Repository
+public interface ReactiveWatchlistEntryRepository extends R2dbcRepository<ReactiveWatchlistEntry, Long> {
+
+    /**
+     * Selects an entry joined with its catalog movie, in the shape of {@link MovieDTO}.
+     */
+    String MOVIE_ROWS = "SELECT e.id, m.title, m.director, m.release_year, m.genre, e.watched, e.rating, "
+            + "m.image_path, m.thumbnail_path, m.medium_path "
+            + "FROM watchlist_entry e JOIN movie_catalog m ON m.id = e.movie_id "
+            + "WHERE e.user_id = :userId ORDER BY e.id";
+
+    /**
+     * Returns one page of a user's watchlist.
+     *
+     * @param userId the owner of the entries
+     * @param limit  page size
+     * @param offset index of the first row
+     * @return the rows of the page
+     */
+    @Query(MOVIE_ROWS + " LIMIT :limit OFFSET :offset")
+    Flux<MovieDTO> findPage(String userId, int limit, long offset);
+
+    /**
+     * Streams a user's whole watchlist. Rows are read from the database as the
+     * subscriber requests them.
+     *
+     * @param userId the owner of the entries
+     * @return all rows of the watchlist
+     */
+    @Query(MOVIE_ROWS)
+    Flux<MovieDTO> streamByUserId(String userId);
+
+    /**
+     * Counts a user's watchlist entries.
+     *
+     * @param userId the owner of the entries
+     * @return number of entries
+     */
+    Mono<Long> countByUserId(String userId);
+
+    /**
+     * Counts a change of a user's watchlist, so that the ETags the servlet stack hands out
+     * for the same database stay correct.
+     *
+     * @param userId the owner of the watchlist
+     * @return the version after the change
+     */
+    @Query(WatchlistEntryRepository.INCREMENT_VERSION)
+    Mono<Long> incrementVersion(String userId);
+
+    /**
+     * Returns an entry if it belongs to the given user.
+     *
+     * @param id     the entry id
+     * @param userId the owner of the entry
+     * @return the entry, or empty if it does not exist for this user
+     */
+    Mono<ReactiveWatchlistEntry> findByIdAndUserId(Long id, String userId);
+
+    /**
+     * Returns the user's entry for a catalog movie, if the user already added it.
+     *
+     * @param userId  the owner of the entry
+     * @param movieId the catalog movie id
+     * @return the existing entry, or empty
+     */
+    Mono<ReactiveWatchlistEntry> findByUserIdAndMovieId(String userId, Long movieId);
+}
@@ -0,0 +1,129 @@
+package com.moviewatchlist.repository;
+
+import com.moviewatchlist.model.WatchlistEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing users' watchlist entries.
+ * <p>
+ * All lookups are keyed by user id so that they only touch that user's rows
+ * (backed by the {@code (user_id, id)} index). The referenced catalog movie is
+ * fetched in the same query.
+ */
+@Repository
+public interface WatchlistEntryRepository extends JpaRepository<WatchlistEntry, Long> {
+
+    /**
+     * Increments a user's watchlist version, creating it on the first change, and returns the
+     * new version in the same statement.
+     */
+    String INCREMENT_VERSION = "SELECT version FROM FINAL TABLE (MERGE INTO watchlist_version v "
+            + "USING (VALUES (CAST(:userId AS VARCHAR(64)))) s (user_id) ON v.user_id = s.user_id "
+            + "WHEN MATCHED THEN UPDATE SET version = v.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, version) VALUES (s.user_id, 1))";
+
+    /**
+     * A user's watchlist version.
+     */
+    interface UserVersion {
+
+        String getUserId();
+
+        long getVersion();
+    }
+
+    /**
+     * Returns a page of one user's watchlist entries.
+     *
+     * @param userId   the owner of the entries
+     * @param pageable page request
+     * @return page of entries with their movies
+     */
+    @EntityGraph(attributePaths = "movie")
+    Page<WatchlistEntry> findByUserId(String userId, Pageable pageable);
+
+    /**
+     * Returns an entry if it belongs to the given user.
+     *
+     * @param id     the entry id
+     * @param userId the owner of the entry
+     * @return the entry with its movie, or empty if it does not exist for this user
+     */
+    @EntityGraph(attributePaths = "movie")
+    Optional<WatchlistEntry> findByIdAndUserId(Long id, String userId);
+
+    /**
+     * Returns all of one user's watchlist entries.
+     *
+     * @param userId the owner of the entries
+     * @return the entries with their movies, in id order
+     */
+    @EntityGraph(attributePaths = "movie")
+    List<WatchlistEntry> findByUserIdOrderById(String userId);
+
+    /**
+     * Returns those of the given entries that belong to the user, in one query.
+     *
+     * @param userId the owner of the entries
+     * @param ids    the entry ids
+     * @return the user's entries with their movies, in no particular order
+     */
+    @EntityGraph(attributePaths = "movie")
+    List<WatchlistEntry> findByUserIdAndIdIn(String userId, Collection<Long> ids);
+
+    /**
+     * Returns the user's entry for a catalog movie, if the user already added it.
+     *
+     * @param userId  the owner of the entry
+     * @param movieId the catalog movie id
+     * @return the existing entry, or empty
+     */
+    Optional<WatchlistEntry> findByUserIdAndMovieId(String userId, Long movieId);
+
+    /**
+     * Returns the next batch of entries of all users in id order, for reading all
+     * watchlists without an offset scan. The movies are not fetched.
+     *
+     * @param id the last id of the previous batch, or 0 for the first batch
+     * @return up to 1000 entries with a greater id
+     */
+    List<WatchlistEntry> findFirst1000ByIdGreaterThanOrderById(Long id);
+
+    /**
+     * Counts a change of a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @return the version after the change
+     */
+    @Transactional
+    @Query(value = INCREMENT_VERSION, nativeQuery = true)
+    long incrementVersion(@Param("userId") String userId);
+
+    /**
+     * Returns the number of changes of a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @return the version, or empty if the watchlist was never changed
+     */
+    @Query(value = "SELECT version FROM watchlist_version WHERE user_id = :userId", nativeQuery = true)
+    Optional<Long> findVersion(@Param("userId") String userId);
+
+    /**
+     * Returns the versions of all watchlists that were ever changed.
+     *
+     * @return one version per user
+     */
+    @Query(value = "SELECT user_id AS userId, version FROM watchlist_version", nativeQuery = true)
+    List<UserVersion> findAllVersions();
+}
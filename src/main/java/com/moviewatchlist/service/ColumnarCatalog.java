@@ -0,0 +1,810 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.MovieFilter;
+import com.moviewatchlist.dto.WatchlistStats;
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Read-optimised in-memory copy of the catalog and of all watchlists, stored column by column.
+ * <p>
+ * Serves the list, filter and stats reads without a database query and without keeping
+ * an entity object and its strings per row:
+ * <ul>
+ *     <li><b>Catalog movies</b> – one slot per movie: the id, genre and director as codes into
+ *     dictionaries of their distinct values, the year as a {@code short}, and the title and image
+ *     paths as slices of UTF-8 byte arenas.</li>
+ *     <li><b>Watchlist entries</b> – one row per entry: the id, the movie slot, the rating as a
+ *     {@code byte} and the watched flag as one bit. Each user has a list of their row numbers,
+ *     sorted by entry id.</li>
+ * </ul>
+ * The target footprint is at most 24 bytes per watchlist entry, and 64 bytes per catalog movie
+ * plus the UTF-8 bytes of its title and image paths; an entity row with its own strings takes
+ * several hundred bytes ({@code ColumnarCatalogBenchmark} measures both).
+ * <p>
+ * The catalog is read in id-ordered batches at startup, and {@link MovieService} applies
+ * the changes it commits together with the watchlist version each change produced (see
+ * {@link WatchlistVersions}). The rows of a user remember the version they reflect; a local
+ * change only advances it if no other instance changed the watchlist in between. A read first
+ * looks up the user's current version, and only if the database is ahead, e.g. after a change
+ * through another instance, the user's watchlist is read from the database again before it is
+ * served, so a read is never older than the ETag it is served with. Deleted entries leave a hole
+ * until holes outnumber the live rows and the rows are compacted. Movies deleted from the
+ * catalog keep their slot until the next restart; they are no longer referenced by any entry.
+ */
+@Component
+@Profile("!reactive")
+public class ColumnarCatalog {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Compaction is not worth it for fewer holes than this.
+     */
+    private static final int MIN_HOLES_TO_COMPACT = 1024;
+
+    /**
+     * Year of a movie without a year, or whose {@code release_year} is not a plain year (e.g. {@code 2008–2013}).
+     */
+    private static final short NO_YEAR = -1;
+
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    private final MovieRepository repo;
+    private final WatchlistEntryRepository entries;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Catalog columns, indexed by movie slot
+
+    private long[] movieIds = new long[INITIAL_CAPACITY];
+    private int[] genres = new int[INITIAL_CAPACITY];
+    private int[] directors = new int[INITIAL_CAPACITY];
+    private short[] years = new short[INITIAL_CAPACITY];
+    private final Utf8Column titles = new Utf8Column();
+    private final Utf8Column imagePaths = new Utf8Column();
+    private final Utf8Column thumbnailPaths = new Utf8Column();
+    private final Utf8Column mediumPaths = new Utf8Column();
+    private final Dictionary genreDictionary = new Dictionary();
+    private final Dictionary directorDictionary = new Dictionary();
+
+    /**
+     * {@code release_year} values that do not fit {@link #years}, by slot. Rare (mostly series).
+     */
+    private final Map<Integer, String> irregularYears = new HashMap<>();
+    private final LongIntMap slotsByMovieId = new LongIntMap();
+    private int movieCount;
+
+    // Entry columns, indexed by row; a row with entry id 0 is a hole
+
+    private long[] entryIds = new long[INITIAL_CAPACITY];
+    private int[] entryMovies = new int[INITIAL_CAPACITY];
+    private byte[] ratings = new byte[INITIAL_CAPACITY];
+    private BitSet watched = new BitSet(INITIAL_CAPACITY);
+    private int rowCount;
+    private int holes;
+    private final Map<String, RowList> rowsByUser = new HashMap<>();
+
+    /**
+     * Constructs the catalog.
+     *
+     * @param repo    catalog repository, read at startup
+     * @param entries watchlist repository, read at startup and when a watchlist changed elsewhere
+     */
+    public ColumnarCatalog(MovieRepository repo, WatchlistEntryRepository entries) {
+        this.repo = repo;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the whole catalog and all watchlists, in batches of increasing ids.
+     */
+    @PostConstruct
+    public void load() {
+        // Versions first: the rows read afterwards are at least as new as the versions recorded
+        List<WatchlistEntryRepository.UserVersion> versions = entries.findAllVersions();
+        lock.writeLock().lock();
+        try {
+            for (WatchlistEntryRepository.UserVersion version : versions) {
+                rowsByUser.computeIfAbsent(version.getUserId(), user -> new RowList()).version = version.getVersion();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        List<Movie> movies;
+        while (!(movies = repo.findFirst1000ByIdGreaterThanOrderById(lastId)).isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                movies.forEach(this::slotOf);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastId = movies.get(movies.size() - 1).getId();
+        }
+
+        lastId = 0;
+        List<WatchlistEntry> batch;
+        while (!(batch = entries.findFirst1000ByIdGreaterThanOrderById(lastId)).isEmpty()) {
+            for (WatchlistEntry entry : batch) {
+                // The movie may have been added by another instance after the catalog was read
+                Long movieId = entry.getMovie().getId();
+                int slot = slot(movieId);
+                Optional<Movie> movie = slot >= 0 ? Optional.empty() : repo.findById(movieId);
+                lock.writeLock().lock();
+                try {
+                    if (slot < 0 && movie.isPresent()) {
+                        slot = slotOf(movie.get());
+                    }
+                    if (slot >= 0) {
+                        addRow(entry, slot);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Adds a new watchlist entry, and its movie if the catalog does not have it yet.
+     *
+     * @param entry   the saved entry
+     * @param movie   the entry's catalog movie
+     * @param version the user's watchlist version after the change
+     */
+    public void add(WatchlistEntry entry, Movie movie, long version) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(movie);
+            RowList rows = rowsByUser.get(entry.getUserId());
+            int index = rows == null ? -1 : rows.indexOf(entry.getId(), entryIds);
+            if (index >= 0) {
+                setState(rows.get(index), entry);
+            } else {
+                addRow(entry, slot);
+            }
+            advance(entry.getUserId(), version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a changed watched flag or rating.
+     *
+     * @param entry   the saved entry
+     * @param version the user's watchlist version after the change
+     */
+    public void update(WatchlistEntry entry, long version) {
+        lock.writeLock().lock();
+        try {
+            int row = row(entry.getUserId(), entry.getId());
+            if (row >= 0) {
+                setState(row, entry);
+                advance(entry.getUserId(), version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted watchlist entry.
+     *
+     * @param userId  the owner of the entry
+     * @param entryId the entry id
+     * @param version the user's watchlist version after the change
+     */
+    public void remove(String userId, Long entryId, long version) {
+        lock.writeLock().lock();
+        try {
+            RowList rows = rowsByUser.get(userId);
+            int index = rows == null ? -1 : rows.indexOf(entryId, entryIds);
+            if (index >= 0) {
+                removeRow(rows, index);
+                compactIfWorthIt();
+            }
+            advance(userId, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a user's watchlist from the database again if its version is ahead of the rows,
+     * e.g. because another instance changed it.
+     *
+     * @param userId the owner of the watchlist
+     */
+    public void refresh(String userId) {
+        long version = entries.findVersion(userId).orElse(0L);
+        lock.readLock().lock();
+        try {
+            if (version <= version(userId)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<WatchlistEntry> current = entries.findByUserIdOrderById(userId);
+        lock.writeLock().lock();
+        try {
+            RowList rows = rowsByUser.computeIfAbsent(userId, user -> new RowList());
+            // A concurrent refresh may have applied a newer read already
+            if (version > rows.version) {
+                replaceRows(rows, current);
+                rows.version = version;
+                compactIfWorthIt();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a page of the user's movies that match the filter, in entry id order.
+     *
+     * @param userId the owner of the watchlist
+     * @param filter the filter; unset fields match everything
+     * @param page   page index (zero-based)
+     * @param size   number of elements per page
+     * @return the page, with the total number of matching movies
+     */
+    public Page<MovieDTO> find(String userId, MovieFilter filter, int page, int size) {
+        refresh(userId);
+        PageRequest request = PageRequest.of(page, size);
+        lock.readLock().lock();
+        try {
+            RowList rows = rowsByUser.get(userId);
+            if (rows == null) {
+                return new PageImpl<>(List.of(), request, 0);
+            }
+            boolean[] genreMatches = filter.getGenre() == null ? null : genreDictionary.matching(filter.getGenre());
+            boolean[] directorMatches = filter.getDirector() == null ? null : directorDictionary.matching(filter.getDirector());
+
+            long first = request.getOffset();
+            List<MovieDTO> content = new ArrayList<>(Math.min(size, rows.size));
+            int total = 0;
+            for (int i = 0; i < rows.size; i++) {
+                int row = rows.get(i);
+                if (!matches(row, filter, genreMatches, directorMatches)) {
+                    continue;
+                }
+                if (total >= first && content.size() < size) {
+                    content.add(toDto(row));
+                }
+                total++;
+            }
+            return new PageImpl<>(content, request, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Summarizes a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @return counts, average rating and movies per genre
+     */
+    public WatchlistStats stats(String userId) {
+        refresh(userId);
+        Map<String, Integer> byGenre = new HashMap<>();
+        int total = 0;
+        int watchedCount = 0;
+        int rated = 0;
+        long ratingSum = 0;
+        lock.readLock().lock();
+        try {
+            RowList rows = rowsByUser.get(userId);
+            int[] genreCounts = new int[genreDictionary.size()];
+            for (int i = 0; rows != null && i < rows.size; i++) {
+                int row = rows.get(i);
+                total++;
+                if (watched.get(row)) {
+                    watchedCount++;
+                }
+                if (ratings[row] > 0) {
+                    rated++;
+                    ratingSum += ratings[row];
+                }
+                int genre = genres[entryMovies[row]];
+                if (genre >= 0) {
+                    genreCounts[genre]++;
+                }
+            }
+            // Count each distinct genre string once, then split it into its genres
+            for (int code = 0; code < genreCounts.length; code++) {
+                if (genreCounts[code] > 0) {
+                    for (String genre : genreDictionary.parts(code)) {
+                        byGenre.merge(genre, genreCounts[code], Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Integer> sortedGenres = new LinkedHashMap<>();
+        byGenre.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(genre -> sortedGenres.put(genre.getKey(), genre.getValue()));
+        return WatchlistStats.builder()
+                .total(total)
+                .watched(watchedCount)
+                .rated(rated)
+                .averageRating(rated == 0 ? 0 : (double) ratingSum / rated)
+                .genres(sortedGenres)
+                .build();
+    }
+
+    /**
+     * Returns the number of watchlist entries of all users.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowCount - holes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate heap size of the catalog, including unused array capacity.
+     *
+     * @return size in bytes
+     */
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            long catalog = 8L * movieIds.length + 4L * genres.length + 4L * directors.length + 2L * years.length
+                    + titles.footprint() + imagePaths.footprint() + thumbnailPaths.footprint() + mediumPaths.footprint()
+                    + genreDictionary.footprint() + directorDictionary.footprint() + slotsByMovieId.footprint();
+            long rows = 8L * entryIds.length + 4L * entryMovies.length + ratings.length + watched.size() / 8;
+            for (RowList list : rowsByUser.values()) {
+                rows += 64 + 4L * list.rows.length;
+            }
+            return catalog + rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(int row, MovieFilter filter, boolean[] genreMatches, boolean[] directorMatches) {
+        int slot = entryMovies[row];
+        return (genreMatches == null || matches(genreMatches, genres[slot]))
+                && (directorMatches == null || matches(directorMatches, directors[slot]))
+                && (filter.getWatched() == null || filter.getWatched() == watched.get(row))
+                && (filter.getMinRating() == null || ratings[row] >= filter.getMinRating());
+    }
+
+    private static boolean matches(boolean[] matchingCodes, int code) {
+        return code >= 0 && matchingCodes[code];
+    }
+
+    private MovieDTO toDto(int row) {
+        int slot = entryMovies[row];
+        return MovieDTO.builder()
+                .id(entryIds[row])
+                .title(titles.get(slot))
+                .director(directorDictionary.decode(directors[slot]))
+                .release_year(years[slot] == NO_YEAR ? irregularYears.get(slot) : Short.toString(years[slot]))
+                .genre(genreDictionary.decode(genres[slot]))
+                .watched(watched.get(row))
+                .rating(ratings[row])
+                .imagePath(imagePaths.get(slot))
+                .thumbnailPath(thumbnailPaths.get(slot))
+                .mediumPath(mediumPaths.get(slot))
+                .build();
+    }
+
+    private int slot(Long movieId) {
+        lock.readLock().lock();
+        try {
+            return slotsByMovieId.get(movieId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the slot of a movie, adding the movie first if necessary. Requires the write lock.
+     */
+    private int slotOf(Movie movie) {
+        int existing = slotsByMovieId.get(movie.getId());
+        if (existing >= 0) {
+            return existing;
+        }
+        int slot = movieCount++;
+        if (slot == movieIds.length) {
+            int capacity = grow(movieIds.length);
+            movieIds = Arrays.copyOf(movieIds, capacity);
+            genres = Arrays.copyOf(genres, capacity);
+            directors = Arrays.copyOf(directors, capacity);
+            years = Arrays.copyOf(years, capacity);
+        }
+        movieIds[slot] = movie.getId();
+        genres[slot] = genreDictionary.encode(movie.getGenre());
+        directors[slot] = directorDictionary.encode(movie.getDirector());
+        String year = movie.getRelease_year();
+        if (year != null && YEAR.matcher(year).matches()) {
+            years[slot] = Short.parseShort(year);
+        } else {
+            years[slot] = NO_YEAR;
+            if (year != null) {
+                irregularYears.put(slot, year);
+            }
+        }
+        titles.add(movie.getTitle());
+        imagePaths.add(movie.getImagePath());
+        thumbnailPaths.add(movie.getThumbnailPath());
+        mediumPaths.add(movie.getMediumPath());
+        slotsByMovieId.put(movie.getId(), slot);
+        return slot;
+    }
+
+    /**
+     * Appends a row for an entry that is not in the catalog yet. Requires the write lock.
+     */
+    private void addRow(WatchlistEntry entry, int slot) {
+        RowList rows = rowsByUser.computeIfAbsent(entry.getUserId(), user -> new RowList());
+        if (rows.indexOf(entry.getId(), entryIds) >= 0) {
+            return;
+        }
+        if (rowCount == entryIds.length) {
+            int capacity = grow(entryIds.length);
+            entryIds = Arrays.copyOf(entryIds, capacity);
+            entryMovies = Arrays.copyOf(entryMovies, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+        }
+        int row = rowCount++;
+        entryIds[row] = entry.getId();
+        entryMovies[row] = slot;
+        setState(row, entry);
+        rows.insert(row, entryIds);
+    }
+
+    private void setState(int row, WatchlistEntry entry) {
+        watched.set(row, entry.isWatched());
+        ratings[row] = (byte) entry.getRating();
+    }
+
+    /**
+     * Removes the rows of entries that are gone and adds or updates the others. Requires the write lock.
+     *
+     * @param current all of the user's entries, with their movies
+     */
+    private void replaceRows(RowList rows, List<WatchlistEntry> current) {
+        Set<Long> ids = new HashSet<>();
+        current.forEach(entry -> ids.add(entry.getId()));
+        for (int index = rows.size - 1; index >= 0; index--) {
+            if (!ids.contains(entryIds[rows.get(index)])) {
+                removeRow(rows, index);
+            }
+        }
+        for (WatchlistEntry entry : current) {
+            int index = rows.indexOf(entry.getId(), entryIds);
+            if (index >= 0) {
+                setState(rows.get(index), entry);
+            } else {
+                addRow(entry, slotOf(entry.getMovie()));
+            }
+        }
+    }
+
+    /**
+     * Turns a row into a hole. Requires the write lock.
+     */
+    private void removeRow(RowList rows, int index) {
+        entryIds[rows.get(index)] = 0;
+        rows.removeAt(index);
+        holes++;
+    }
+
+    /**
+     * Compacts the rows once holes outnumber the live rows. Requires the write lock.
+     */
+    private void compactIfWorthIt() {
+        if (holes >= MIN_HOLES_TO_COMPACT && holes > rowCount - holes) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves the user's rows to the version of a change just applied to them, unless another
+     * change was counted in between; that one is then read by the next {@link #refresh}.
+     * Requires the write lock.
+     */
+    private void advance(String userId, long version) {
+        RowList rows = rowsByUser.computeIfAbsent(userId, user -> new RowList());
+        if (version == rows.version + 1) {
+            rows.version = version;
+        }
+    }
+
+    /**
+     * Returns the watchlist version the user's rows reflect. Requires the lock.
+     */
+    private long version(String userId) {
+        RowList rows = rowsByUser.get(userId);
+        return rows == null ? 0 : rows.version;
+    }
+
+    private int row(String userId, Long entryId) {
+        RowList rows = rowsByUser.get(userId);
+        int index = rows == null ? -1 : rows.indexOf(entryId, entryIds);
+        return index < 0 ? -1 : rows.get(index);
+    }
+
+    /**
+     * Moves the live rows together, user by user. Requires the write lock.
+     */
+    private void compact() {
+        int live = rowCount - holes;
+        int capacity = Math.max(INITIAL_CAPACITY, grow(live));
+        long[] newIds = new long[capacity];
+        int[] newMovies = new int[capacity];
+        byte[] newRatings = new byte[capacity];
+        BitSet newWatched = new BitSet(capacity);
+
+        int next = 0;
+        for (RowList rows : rowsByUser.values()) {
+            for (int i = 0; i < rows.size; i++) {
+                int row = rows.rows[i];
+                newIds[next] = entryIds[row];
+                newMovies[next] = entryMovies[row];
+                newRatings[next] = ratings[row];
+                newWatched.set(next, watched.get(row));
+                rows.rows[i] = next++;
+            }
+        }
+        entryIds = newIds;
+        entryMovies = newMovies;
+        ratings = newRatings;
+        watched = newWatched;
+        rowCount = next;
+        holes = 0;
+    }
+
+    private static int grow(int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+
+    /**
+     * Row numbers of one user's entries, sorted by entry id, and the watchlist version they reflect.
+     * Kept when the user's last entry is removed, so that the version is not forgotten.
+     */
+    private static final class RowList {
+
+        private int[] rows = new int[8];
+        private int size;
+        private long version;
+
+        int get(int index) {
+            return rows[index];
+        }
+
+        /**
+         * Finds the position of an entry by binary search over the entry ids of the rows.
+         */
+        int indexOf(long entryId, long[] entryIds) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long id = entryIds[rows[mid]];
+                if (id < entryId) {
+                    low = mid + 1;
+                } else if (id > entryId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insert(int row, long[] entryIds) {
+            int index = -(indexOf(entryIds[row], entryIds) + 1);
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            System.arraycopy(rows, index, rows, index + 1, size - index);
+            rows[index] = row;
+            size++;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Distinct values of a column; rows store the value's code.
+     */
+    private static final class Dictionary {
+
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        /**
+         * Returns the code of a value, adding it if it is new; {@code -1} for {@code null}.
+         */
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * Splits a comma-separated value such as {@code "Crime, Drama"} into its parts.
+         */
+        String[] parts(int code) {
+            return LIST_SEPARATOR.split(values.get(code).strip());
+        }
+
+        /**
+         * Returns, for every code, whether one of the value's parts equals the given one
+         * (case-insensitive), so that rows can be matched by an array lookup.
+         */
+        boolean[] matching(String part) {
+            boolean[] matches = new boolean[values.size()];
+            for (int code = 0; code < matches.length; code++) {
+                for (String candidate : parts(code)) {
+                    if (candidate.equalsIgnoreCase(part.strip())) {
+                        matches[code] = true;
+                        break;
+                    }
+                }
+            }
+            return matches;
+        }
+
+        long footprint() {
+            long bytes = 0;
+            for (String value : values) {
+                // String, its byte array and the hash map entry
+                bytes += 24 + 16 + value.length() + 48;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Strings of a column stored back to back as UTF-8 in one byte array.
+     */
+    private static final class Utf8Column {
+
+        private byte[] arena = new byte[16 * INITIAL_CAPACITY];
+        private int[] ends = new int[INITIAL_CAPACITY];
+        private final BitSet nulls = new BitSet();
+        private int count;
+
+        void add(String value) {
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            int start = count == 0 ? 0 : ends[count - 1];
+            if (start + bytes.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(start + bytes.length, grow(arena.length)));
+            }
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, grow(ends.length));
+            }
+            System.arraycopy(bytes, 0, arena, start, bytes.length);
+            ends[count] = start + bytes.length;
+            nulls.set(count, value == null);
+            count++;
+        }
+
+        String get(int index) {
+            if (nulls.get(index)) {
+                return null;
+            }
+            int start = index == 0 ? 0 : ends[index - 1];
+            return new String(arena, start, ends[index] - start, StandardCharsets.UTF_8);
+        }
+
+        long footprint() {
+            return arena.length + 4L * ends.length + nulls.size() / 8;
+        }
+    }
+
+    /**
+     * Open-addressing map from movie id to slot, without boxing. Ids must not be 0.
+     */
+    private static final class LongIntMap {
+
+        private long[] keys = new long[2 * INITIAL_CAPACITY];
+        private int[] values = new int[2 * INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Returns the value of a key, or {@code -1} if it is absent.
+         */
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                long[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new int[oldValues.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != 0) {
+                        put(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private static int index(long key, int mask) {
+            return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        }
+
+        long footprint() {
+            return 12L * keys.length;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.moviewatchlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of requests sent with an {@code Idempotency-Key} header, so that a
+ * retried request returns the original result instead of performing the operation again.
+ * <p>
+ * Keys are scoped to a user. A retry that arrives while the original request is still
+ * running waits for its result. Failed requests are forgotten so that they can be retried.
+ * Reusing a key for a different request is rejected with HTTP 422.
+ * <p>
+ * Results are kept in memory for {@code idempotency.ttl}; at most {@code idempotency.max-keys}
+ * keys are held, the oldest being dropped first.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final int maxKeys;
+    private final Duration ttl;
+    private final Clock clock;
+
+    /**
+     * User-scoped key mapped to the request it was first used for, in insertion order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Constructs the store.
+     *
+     * @param maxKeys maximum number of remembered keys
+     * @param ttl     how long a result is remembered
+     */
+    @Autowired
+    public IdempotencyStore(@Value("${idempotency.max-keys:10000}") int maxKeys,
+                            @Value("${idempotency.ttl:24h}") Duration ttl) {
+        this(maxKeys, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs the store with an explicit clock.
+     *
+     * @param maxKeys maximum number of remembered keys
+     * @param ttl     how long a result is remembered
+     * @param clock   source of the current time
+     */
+    public IdempotencyStore(int maxKeys, Duration ttl, Clock clock) {
+        this.maxKeys = maxKeys;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a blocking operation at most once per key.
+     *
+     * @param userId  the user sending the request
+     * @param key     the client-supplied idempotency key
+     * @param request a fingerprint of the request (e.g. its body), used to detect key reuse
+     * @param action  the operation
+     * @param <T>     result type
+     * @return the result of the first request with this key
+     * @throws ResponseStatusException with 422 if the key was used for a different request
+     */
+    public <T> T execute(String userId, String key, String request, Supplier<T> action) {
+        try {
+            return executeAsync(userId, key, request, () -> CompletableFuture.completedFuture(action.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs an asynchronous operation at most once per key.
+     *
+     * @param userId  the user sending the request
+     * @param key     the client-supplied idempotency key
+     * @param request a fingerprint of the request (e.g. its body), used to detect key reuse
+     * @param action  starts the operation
+     * @param <T>     result type
+     * @return the result of the first request with this key
+     * @throws ResponseStatusException with 422 if the key was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String userId, String key, String request,
+                                                 Supplier<CompletableFuture<T>> action) {
+        String scopedKey = userId + '\n' + key;
+        long now = clock.millis();
+        Entry created = new Entry(request, new CompletableFuture<>(), now + ttl.toMillis());
+        Entry existing;
+
+        lock.lock();
+        try {
+            evict(now);
+            existing = entries.putIfAbsent(scopedKey, created);
+        } finally {
+            lock.unlock();
+        }
+
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            return (CompletableFuture<T>) existing.result;
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                forget(scopedKey, created);
+                created.result.completeExceptionally(error);
+            } else {
+                ((CompletableFuture<T>) created.result).complete(value);
+            }
+        });
+        return (CompletableFuture<T>) created.result;
+    }
+
+    /**
+     * Returns the number of remembered keys.
+     *
+     * @return number of keys
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(String scopedKey, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(scopedKey, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops expired keys and the oldest keys beyond {@link #maxKeys}. Entries are in
+     * insertion order and share one TTL, so expired ones are always at the head.
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.expiresAt > now && entries.size() < maxKeys) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private record Entry(String request, CompletableFuture<Object> result, long expiresAt) {
+    }
+}
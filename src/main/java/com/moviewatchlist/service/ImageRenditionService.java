@@ -0,0 +1,163 @@
+package com.moviewatchlist.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Service responsible for producing smaller renditions of downloaded movie images.
+ * <p>
+ * List views only need small thumbnails, so serving the w780 originals wastes bandwidth
+ * and client render time. For a given original this service:
+ * <ul>
+ *     <li>Decodes the image once.</li>
+ *     <li>Scales it down to each configured width (aspect ratio preserved, never upscaled).</li>
+ *     <li>Writes each rendition as a progressive JPEG next to the original.</li>
+ * </ul>
+ * The CPU-bound work runs on the dedicated {@code imageProcessingExecutor} pool rather than
+ * on the threads used for HTTP I/O.
+ */
+@Service
+public class ImageRenditionService {
+
+    /**
+     * Rendition name for list-view thumbnails.
+     */
+    public static final String THUMB = "thumb";
+
+    /**
+     * Rendition name for detail-view images.
+     */
+    public static final String MEDIUM = "medium";
+
+    @Value("${images.renditions.thumb-width:92}")
+    private int thumbWidth;
+
+    @Value("${images.renditions.medium-width:342}")
+    private int mediumWidth;
+
+    @Value("${images.renditions.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs the service with the CPU-bound image processing pool.
+     *
+     * @param executor bounded pool sized to the number of cores
+     */
+    public ImageRenditionService(@Qualifier("imageProcessingExecutor") ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the thumbnail and medium renditions of an original image.
+     * Each rendition is stored next to the original as {@code <name>_<rendition>.jpg}.
+     *
+     * @param originalPath absolute path to the downloaded original image
+     * @return rendition name ({@link #THUMB}, {@link #MEDIUM}) mapped to its absolute path;
+     *         empty if the original cannot be decoded as an image
+     * @throws RuntimeException if reading the original or writing a rendition fails
+     */
+    public Map<String, String> createRenditions(String originalPath) {
+        try {
+            File original = new File(originalPath);
+            BufferedImage source = CompletableFuture
+                    .supplyAsync(() -> read(original), executor)
+                    .join();
+
+            Map<String, String> renditions = new LinkedHashMap<>();
+            if (source == null) {
+                return renditions;
+            }
+
+            CompletableFuture<String> thumb = CompletableFuture
+                    .supplyAsync(() -> writeRendition(source, original, THUMB, thumbWidth), executor);
+            CompletableFuture<String> medium = CompletableFuture
+                    .supplyAsync(() -> writeRendition(source, original, MEDIUM, mediumWidth), executor);
+
+            renditions.put(THUMB, thumb.join());
+            renditions.put(MEDIUM, medium.join());
+            return renditions;
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create image renditions: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes an image file, returning {@code null} if no ImageIO reader understands it.
+     */
+    private BufferedImage read(File file) {
+        try {
+            return ImageIO.read(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read image " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Scales the source image to the given width and writes it as a progressive JPEG.
+     *
+     * @return absolute path of the written rendition
+     */
+    private String writeRendition(BufferedImage source, File original, String name, int width) {
+        BufferedImage scaled = scaleToWidth(source, width);
+
+        String baseName = original.getName().replaceFirst("\\.[^.]*$", "");
+        File output = new File(original.getParentFile(), baseName + "_" + name + ".jpg");
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write rendition " + output + ": " + e.getMessage(), e);
+        } finally {
+            writer.dispose();
+        }
+
+        return output.getAbsolutePath();
+    }
+
+    /**
+     * Scales an image down to the given width, preserving its aspect ratio.
+     * Images that are already narrower are only converted to RGB.
+     */
+    private static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+
+        // JPEG has no alpha channel, so always render into an RGB image
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -1,9 +1,14 @@
 package com.moviewatchlist.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.client.RateLimiter;
+import com.moviewatchlist.client.TmdbResponseParser;
 import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriUtils;
@@ -11,8 +16,9 @@ import org.springframework.web.util.UriUtils;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service responsible for fetching movie-related images from TMDB (The Movie Database).
@@ -20,32 +26,66 @@ import java.util.List;
  * This service performs the following:
  * <ul>
  *     <li>Searches for a movie ID on TMDB using a movie title.</li>
- *     <li>Retrieves image metadata (posters and backdrops) for that movie.</li>
- *     <li>Downloads up to 3 images and stores them locally in the file system.</li>
+ *     <li>Retrieves image metadata (posters and backdrops) for that movie, cached in the {@link UpstreamCache}.</li>
+ *     <li>Downloads up to 3 images and stores them in the movie's directory of the {@link ImageStore}.</li>
  *     <li>Returns the path to the first downloaded image.</li>
  * </ul>
+ * <p>
+ * The two TMDB API calls take their permits from the limiter shared by all TMDB calls;
+ * the image downloads go to TMDB's CDN and are not limited.
  */
 @Service
+@Profile("!reactive")
 public class ImageService {
 
+    /**
+     * TMDB requests made per image lookup: the search and the images list.
+     */
+    public static final int TMDB_CALLS_PER_LOOKUP = 2;
+
     @Value("${tmdb.api.key}")
     private String tmdbApiKey;
 
+    @Value("${tmdb.api.base-url:https://api.themoviedb.org/3}")
+    private String tmdbBaseUrl;
+
+    @Value("${tmdb.image.base-url:https://image.tmdb.org/t/p/w780}")
+    private String imageBaseUrl;
+
     private final RestTemplate restTemplate;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper;
+    private final ImageStore imageStore;
+    private final UpstreamCache upstreamCache;
+    private final RateLimiter rateLimiter;
+    private final Duration maxWait;
 
     /**
-     * Constructs the ImageService with a {@link RestTemplate} dependency.
+     * Constructs the ImageService with a {@link RestTemplate}, the shared {@link ObjectMapper},
+     * the {@link ImageStore} that decides where images are written, the {@link UpstreamCache}
+     * for image metadata and the shared TMDB {@link RateLimiter}.
      *
-     * @param restTemplate Spring-managed HTTP client used for API calls
+     * @param restTemplate  Spring-managed HTTP client used for API calls
+     * @param mapper        Jackson mapper used to create streaming parsers
+     * @param imageStore    local image directory manager
+     * @param upstreamCache cache of TMDB image paths by title
+     * @param rateLimiter   limiter shared by all TMDB calls
+     * @param maxWait       how long a lookup may wait for the rate limiter before it fails
      */
-    public ImageService(RestTemplate restTemplate) {
+    public ImageService(RestTemplate restTemplate, ObjectMapper mapper, ImageStore imageStore,
+                        UpstreamCache upstreamCache,
+                        @Qualifier("tmdbRateLimiter") RateLimiter rateLimiter,
+                        @Value("${tmdb.rate-limit.max-wait:5s}") Duration maxWait) {
         this.restTemplate = restTemplate;
+        this.mapper = mapper;
+        this.imageStore = imageStore;
+        this.upstreamCache = upstreamCache;
+        this.rateLimiter = rateLimiter;
+        this.maxWait = maxWait;
     }
 
     /**
      * Fetches up to 3 images for a given movie title using the TMDB API.
-     * Downloads the images and stores them in a local directory named after the sanitized title.
+     * Downloads the images and stores them in a sharded directory named after the sanitized title.
      * Returns the absolute path to the first downloaded image, which serves as the representative image.
      *
      * @param title The movie title to search for
@@ -54,73 +94,87 @@ public class ImageService {
      */
     public String fetchImage(String title) {
         try {
-            // 1. Search for movie ID by title
-            String encodedTitle = UriUtils.encode(title, StandardCharsets.UTF_8);
-            String searchUrl = String.format(
-                    "https://api.themoviedb.org/3/search/movie?query=%s&api_key=%s",
-                    encodedTitle, tmdbApiKey);
-
-            String searchResponse = restTemplate.getForObject(searchUrl, String.class);
-            JsonNode searchJson = mapper.readTree(searchResponse);
-            JsonNode results = searchJson.path("results");
-
-            if (!results.elements().hasNext()) {
-                throw new RuntimeException("TMDB: Movie not found");
-            }
-
-            String movieId = results.get(0).get("id").asText();
-
-            // 2. Fetch images metadata
-            String imagesUrl = String.format(
-                    "https://api.themoviedb.org/3/movie/%s/images?api_key=%s",
-                    movieId, tmdbApiKey);
-
-            String imagesResponse = restTemplate.getForObject(imagesUrl, String.class);
-            JsonNode imagesJson = mapper.readTree(imagesResponse);
-
-            List<String> imagePaths = new ArrayList<>();
-
-            // Collect poster paths
-            JsonNode posters = imagesJson.path("posters");
-            posters.elements().forEachRemaining(node -> {
-                if (imagePaths.size() < 3) {
-                    imagePaths.add(node.path("file_path").asText());
-                }
-            });
-
-            // Fallback: add backdrops if not enough posters
-            if (imagePaths.size() < 3) {
-                JsonNode backdrops = imagesJson.path("backdrops");
-                backdrops.elements().forEachRemaining(node -> {
-                    if (imagePaths.size() < 3) {
-                        imagePaths.add(node.path("file_path").asText());
-                    }
-                });
-            }
+            // 1. Look up the image paths, from the cache if a previous lookup or prefetch made them
+            List<String> imagePaths = upstreamCache.images(title, this::findImagePaths);
 
-            if (imagePaths.isEmpty()) {
-                throw new RuntimeException("No images found for movie");
-            }
-
-            // 3. Download images to local file system
-            String safeTitle = title.replaceAll("[^a-zA-Z0-9]", "_");
-            File dir = new File("images/" + safeTitle);
+            // 2. Download images to local file system
+            File dir = imageStore.directoryFor(title).toFile();
             Files.createDirectories(dir.toPath());
 
             for (int i = 0; i < imagePaths.size(); i++) {
                 String path = imagePaths.get(i);
-                String imageUrl = "https://image.tmdb.org/t/p/w780" + path;
+                String imageUrl = imageBaseUrl + path;
 
                 byte[] imageBytes = restTemplate.getForObject(imageUrl, byte[].class);
                 File output = new File(dir, "image" + (i + 1) + ".jpg");
                 FileUtils.writeByteArrayToFile(output, imageBytes);
             }
 
-            // 4. Return path to first image
+            // 3. Return path to first image
             return new File(dir, "image1.jpg").getAbsolutePath();
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch image: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Looks up the paths of up to 3 images of a movie on TMDB, posters first, without
+     * downloading them or consulting the cache.
+     *
+     * @param title The movie title to search for
+     * @return TMDB file paths of the images, never empty
+     * @throws RuntimeException if the movie is not found, has no images or the rate limit is exceeded
+     */
+    public List<String> findImagePaths(String title) {
+        return tryFindImagePaths(title, maxWait)
+                .orElseThrow(() -> new IllegalStateException("TMDB rate limit exceeded"));
+    }
+
+    /**
+     * Looks up the image paths like {@link #findImagePaths(String)}, but only if the TMDB
+     * permits for it are available within the given time.
+     *
+     * @param title   The movie title to search for
+     * @param maxWait how long to wait for the rate limiter, {@link Duration#ZERO} to not wait
+     * @return TMDB file paths of the images, or empty if no permits were available
+     * @throws RuntimeException if the movie is not found or has no images
+     */
+    public Optional<List<String>> tryFindImagePaths(String title, Duration maxWait) {
+        if (!rateLimiter.tryAcquire(TMDB_CALLS_PER_LOOKUP, maxWait)) {
+            return Optional.empty();
+        }
+
+        // Search for movie ID by title
+        String encodedTitle = UriUtils.encode(title, StandardCharsets.UTF_8);
+        String searchUrl = String.format(
+                "%s/search/movie?query=%s&api_key=%s",
+                tmdbBaseUrl, encodedTitle, tmdbApiKey);
+
+        Long movieId = restTemplate.execute(searchUrl, HttpMethod.GET, null, response -> {
+            try (JsonParser parser = mapper.getFactory().createParser(response.getBody())) {
+                return TmdbResponseParser.readFirstResultId(parser);
+            }
+        });
+
+        if (movieId == null) {
+            throw new RuntimeException("TMDB: Movie not found");
+        }
+
+        // Fetch images metadata, collecting posters first and backdrops as a fallback
+        String imagesUrl = String.format(
+                "%s/movie/%s/images?api_key=%s",
+                tmdbBaseUrl, movieId, tmdbApiKey);
+
+        List<String> imagePaths = restTemplate.execute(imagesUrl, HttpMethod.GET, null, response -> {
+            try (JsonParser parser = mapper.getFactory().createParser(response.getBody())) {
+                return TmdbResponseParser.readImagePaths(parser, 3);
+            }
+        });
+
+        if (imagePaths == null || imagePaths.isEmpty()) {
+            throw new RuntimeException("No images found for movie");
+        }
+        return Optional.of(imagePaths);
+    }
 }
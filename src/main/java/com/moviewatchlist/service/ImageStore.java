@@ -0,0 +1,323 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.repository.ImagePathSource;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Manages the local directory that holds downloaded movie images.
+ * <p>
+ * Every movie gets its own directory (original images plus renditions) named after the
+ * MD5 hash of its title and placed in a two-level shard taken from the same hash, e.g.
+ * {@code images/3f/a2/3fa2...}, so that no single directory ends up with millions of
+ * entries and titles that differ only in punctuation or script never share a directory.
+ * The store:
+ * <ul>
+ *     <li>Deletes a movie's directory when the movie is deleted.</li>
+ *     <li>Keeps a compact in-memory index of directory sizes in least-recently-accessed order.</li>
+ *     <li>Evicts the least recently accessed directories once the configured disk budget is exceeded.</li>
+ *     <li>On startup, before the web server accepts requests, removes directories that no
+ *     movie in the database refers to anymore.</li>
+ * </ul>
+ */
+@Service
+public class ImageStore implements SmartLifecycle {
+
+    private final Path root;
+    private final long maxBytes;
+    private final ImagePathSource imagePaths;
+
+    /**
+     * Movie directory (absolute path) mapped to its size in bytes, iterated from least to
+     * most recently accessed.
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long usedBytes;
+
+    private volatile boolean running;
+
+    /**
+     * Guards {@link #index} and {@link #usedBytes}. A lock rather than {@code synchronized}
+     * so that virtual threads waiting for it are not pinned to their carrier; file system
+     * I/O is never done while holding it.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Constructs the store.
+     *
+     * @param root       root directory for all images
+     * @param maxBytes   disk budget in bytes; directories are evicted once it is exceeded
+     * @param imagePaths image paths of the catalog, used to find orphaned directories on startup
+     */
+    public ImageStore(@Value("${images.store.root:images}") String root,
+                      @Value("${images.store.max-bytes:1073741824}") long maxBytes,
+                      ImagePathSource imagePaths) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.imagePaths = imagePaths;
+    }
+
+    /**
+     * Returns the sharded directory in which images for the given title should be stored.
+     * The directory is not created.
+     *
+     * @param title the movie title
+     * @return absolute path of the movie's image directory
+     */
+    public Path directoryFor(String title) {
+        String hash = DigestUtils.md5DigestAsHex(title.getBytes(StandardCharsets.UTF_8));
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Adds the directory containing the given image to the access index and evicts the
+     * least recently accessed directories if the disk budget is now exceeded.
+     *
+     * @param imagePath path to any image inside a movie directory
+     */
+    public void register(String imagePath) {
+        String dir = directoryOf(imagePath);
+        if (dir == null) {
+            return;
+        }
+        long size = FileUtils.sizeOfDirectory(new File(dir));
+        lock.lock();
+        try {
+            Long previous = index.put(dir, size);
+            usedBytes += size - (previous != null ? previous : 0L);
+        } finally {
+            lock.unlock();
+        }
+        evictOverBudget(dir);
+    }
+
+    /**
+     * Marks the directory containing the given image as recently accessed.
+     *
+     * @param imagePath path to any image inside a movie directory
+     */
+    public void touch(String imagePath) {
+        String dir = directoryOf(imagePath);
+        if (dir == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            index.get(dir);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the directory containing the given image and removes it from the index.
+     *
+     * @param imagePath path to any image inside a movie directory; ignored if {@code null}
+     */
+    public void delete(String imagePath) {
+        String dir = directoryOf(imagePath);
+        if (dir == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            Long size = index.remove(dir);
+            if (size != null) {
+                usedBytes -= size;
+            }
+        } finally {
+            lock.unlock();
+        }
+        deleteDirectory(dir);
+    }
+
+    /**
+     * Returns the total size of all indexed directories.
+     *
+     * @return used disk space in bytes
+     */
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconciles the store on startup. Runs in an early lifecycle phase, after the database
+     * is migrated but before the web server starts, so that no add can be writing a
+     * directory that is not yet referenced by a movie.
+     */
+    @Override
+    public void start() {
+        reconcile();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns a phase well ahead of the web server's, which starts just below
+     * {@link SmartLifecycle#DEFAULT_PHASE}.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Scans the sharded directories. Directories referenced by a movie are indexed (oldest
+     * access first); all others are deleted as orphans. The disk budget is enforced afterwards.
+     */
+    public void reconcile() {
+        Set<String> referenced = new HashSet<>();
+        for (String imagePath : imagePaths.findAllImagePaths()) {
+            String dir = directoryOf(imagePath);
+            if (dir != null) {
+                referenced.add(dir);
+            }
+        }
+
+        List<Path> movieDirs = listMovieDirectories();
+        movieDirs.sort(Comparator.comparingLong(ImageStore::lastAccessTime));
+
+        lock.lock();
+        try {
+            index.clear();
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        for (Path dir : movieDirs) {
+            String key = dir.toString();
+            if (!referenced.contains(key)) {
+                deleteDirectory(key);
+                continue;
+            }
+            long size = FileUtils.sizeOfDirectory(dir.toFile());
+            lock.lock();
+            try {
+                index.put(key, size);
+                usedBytes += size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        evictOverBudget(null);
+    }
+
+    /**
+     * Deletes the least recently accessed directories until the used space fits the budget.
+     *
+     * @param keep directory that must not be evicted (the one just written), or {@code null}
+     */
+    private void evictOverBudget(String keep) {
+        List<String> victims = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(keep)) {
+                    continue;
+                }
+                usedBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        victims.forEach(this::deleteDirectory);
+    }
+
+    /**
+     * Lists all movie directories at {@code root/xx/yy/<hash>}.
+     * Unsharded directories and files directly under the root are left untouched.
+     */
+    private List<Path> listMovieDirectories() {
+        List<Path> dirs = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return dirs;
+        }
+        try (Stream<Path> walk = Files.walk(root, 3)) {
+            walk.filter(path -> root.relativize(path).getNameCount() == 3)
+                    .filter(Files::isDirectory)
+                    .filter(path -> isShard(path.getParent()) && isShard(path.getParent().getParent()))
+                    .forEach(dirs::add);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan image directory: " + e.getMessage(), e);
+        }
+        return dirs;
+    }
+
+    private static boolean isShard(Path dir) {
+        return dir.getFileName().toString().matches("[0-9a-f]{2}");
+    }
+
+    private static long lastAccessTime(Path dir) {
+        try {
+            return Files.readAttributes(dir, BasicFileAttributes.class).lastAccessTime().toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Resolves the movie directory an image belongs to, or {@code null} if the path is
+     * empty or lies outside the store's root.
+     */
+    private String directoryOf(String imagePath) {
+        if (imagePath == null || imagePath.isBlank()) {
+            return null;
+        }
+        Path dir = Paths.get(imagePath).toAbsolutePath().normalize().getParent();
+        if (dir == null || !dir.startsWith(root) || dir.equals(root)) {
+            return null;
+        }
+        return dir.toString();
+    }
+
+    private void deleteDirectory(String dir) {
+        try {
+            FileUtils.deleteDirectory(new File(dir));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete image directory: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.moviewatchlist.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moviewatchlist.client.OmdbClient;
 import com.moviewatchlist.client.TmdbClient;
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.MovieFilter;
+import com.moviewatchlist.dto.SimilarMoviesBatch;
+import com.moviewatchlist.dto.WatchlistEvent;
+import com.moviewatchlist.dto.WatchlistStats;
 import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
 import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
@@ -19,30 +28,70 @@ import java.net.http.HttpResponse;
 import java.net.URLEncoder;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for core business logic related to Movie management.
  * <p>
- * This includes:
+ * Movie metadata is kept in a catalog shared by all users, while every user has
+ * their own watchlist entries. This includes:
  * <ul>
- *     <li>Adding a movie to the database</li>
- *     <li>Fetching data from OMDb and TMDB</li>
+ *     <li>Adding a movie to a user's watchlist</li>
+ *     <li>Fetching data from OMDb and TMDB (only for movies not yet in the catalog)</li>
+ *     <li>Listing, filtering and summarizing watchlists from the in-memory {@link ColumnarCatalog}</li>
  *     <li>Updating movie attributes (watched/rating)</li>
- *     <li>Deleting movies</li>
- *     <li>Returning similar movies based on TMDB data</li>
+ *     <li>Deleting movies and their images</li>
+ *     <li>Serving stored images</li>
+ *     <li>Returning similar movies based on TMDB data, and prefetching the likeliest next adds among them</li>
+ *     <li>Publishing every change to the user's event stream and bumping their watchlist version</li>
  * </ul>
  */
 @Service
+@Profile("!reactive")
 public class MovieService {
 
+    private static final Logger log = LoggerFactory.getLogger(MovieService.class);
+
     private final MovieRepository repo;
+    private final WatchlistEntryRepository entries;
     private final ImageService imageService;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ImageRenditionService renditionService;
+    private final ImageStore imageStore;
     private final OmdbClient omdbClient;
     private final TmdbClient tmdbClient;
+    private final UpstreamCache upstreamCache;
+    private final WatchlistEventBus eventBus;
+    private final WatchlistVersions versions;
+    private final ColumnarCatalog catalog;
+    private final SimilarPrefetcher prefetcher;
+    private final Executor upstreamExecutor;
+
+    /**
+     * Catalog fetches in progress, by title key. Later adds of the same title wait for
+     * the running fetch instead of calling OMDb and TMDB again.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Movie>> inFlight = new ConcurrentHashMap<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
 
     @Value("${omdb.api.key}")
     private String omdbApiKey;
@@ -53,91 +102,518 @@ public class MovieService {
     /**
      * Constructs MovieService with required dependencies.
      *
-     * @param repo         movie repository for database access
-     * @param imageService service to download movie images
-     * @param omdbClient   client to fetch OMDb movie metadata
+     * @param repo             catalog repository for shared movie metadata
+     * @param entries          repository for users' watchlist entries
+     * @param imageService     service to download movie images
+     * @param renditionService service to create scaled-down image renditions
+     * @param imageStore       manager of the local image directory
+     * @param omdbClient       client to fetch OMDb movie metadata
+     * @param tmdbClient       client to fetch TMDB data
+     * @param upstreamCache    cache of OMDb and TMDB responses
+     * @param eventBus         publishes watchlist changes to the users' event streams
+     * @param versions         version counters of the users' watchlists
+     * @param catalog          in-memory copy of the catalog and watchlists for reads
+     * @param prefetcher       warms the upstream cache for titles from similar-movies lists
+     * @param upstreamExecutor executor for blocking upstream calls (virtual threads when enabled)
      */
-    public MovieService(MovieRepository repo, ImageService imageService, OmdbClient omdbClient, TmdbClient tmdbClient) {
+    public MovieService(MovieRepository repo, WatchlistEntryRepository entries, ImageService imageService,
+                        ImageRenditionService renditionService, ImageStore imageStore,
+                        OmdbClient omdbClient, TmdbClient tmdbClient, UpstreamCache upstreamCache,
+                        WatchlistEventBus eventBus, WatchlistVersions versions, ColumnarCatalog catalog,
+                        SimilarPrefetcher prefetcher, @Qualifier("upstreamExecutor") Executor upstreamExecutor) {
         this.repo = repo;
+        this.entries = entries;
         this.imageService = imageService;
+        this.renditionService = renditionService;
+        this.imageStore = imageStore;
         this.omdbClient = omdbClient;
         this.tmdbClient = tmdbClient;
+        this.upstreamCache = upstreamCache;
+        this.eventBus = eventBus;
+        this.versions = versions;
+        this.catalog = catalog;
+        this.prefetcher = prefetcher;
+        this.upstreamExecutor = upstreamExecutor;
     }
 
     /**
-     * Adds a movie by title by calling OMDb and TMDB, storing full data to database.
+     * Adds a movie to a user's watchlist by title.
+     * If the movie is already in the catalog no external call is made; otherwise its
+     * data is fetched from OMDb and TMDB and stored in the catalog first.
+     * Concurrent adds of the same title share one fetch.
+     * Adding a movie that is already on the user's watchlist has no effect.
      *
-     * @param title the title of the movie
+     * @param userId the user adding the movie
+     * @param title  the title of the movie
+     * @return the user's watchlist entry for the movie
      */
-    public void addMovie(String title) {
+    public MovieDTO addMovie(String userId, String title) {
         try {
-            CompletableFuture<Movie> movieFuture = CompletableFuture.supplyAsync(() -> omdbClient.fetchMovie(title));
-            CompletableFuture<String> imageFuture = CompletableFuture.supplyAsync(() -> imageService.fetchImage(title));
+            String key = titleKey(title);
+            // A second attempt is only needed if the movie was deleted from the catalog in between
+            for (int attempt = 1; ; attempt++) {
+                Optional<Movie> cached = findInCatalog(key);
+                Movie movie = cached.orElseGet(() -> fetchCoalesced(key, title));
 
-            Movie movie = movieFuture.join();
-            movie.setImagePath(imageFuture.join());
-
-            repo.save(movie);
+                Optional<WatchlistEntry> entry = entries.findByUserIdAndMovieId(userId, movie.getId())
+                        .or(() -> saveEntry(userId, movie, cached.isEmpty()));
+                if (entry.isPresent()) {
+                    return toDto(entry.get(), movie);
+                }
+                if (attempt == 2) {
+                    throw new IllegalStateException("Movie was removed from the catalog while adding it");
+                }
+            }
         } catch (Exception e) {
             throw new RuntimeException("Failed to add movie: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Creates the user's entry and publishes it. If a concurrent request of the same user
+     * (e.g. a double submit) created it first, the unique index rejects this one and the
+     * existing entry is returned instead.
+     *
+     * @param fetched whether the movie's images were downloaded for this add
+     * @return the entry, or empty if the last other user's delete removed the catalog movie meanwhile
+     */
+    private Optional<WatchlistEntry> saveEntry(String userId, Movie movie, boolean fetched) {
+        WatchlistEntry entry = WatchlistEntry.builder()
+                .userId(userId)
+                .movie(movie)
+                .build();
+        try {
+            entries.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            Optional<WatchlistEntry> existing = entries.findByUserIdAndMovieId(userId, movie.getId());
+            if (existing.isEmpty() && !repo.existsById(movie.getId())) {
+                return Optional.empty();
+            }
+            return Optional.of(existing.orElseThrow(() -> e));
+        }
+
+        catalog.add(entry, movie, versions.increment(userId));
+        MovieDTO dto = toDto(entry, movie);
+        publish(userId, WatchlistEvent.Type.ADDED, dto);
+        // Renditions are created during the add, so they are ready as soon as the entry exists
+        if (fetched && movie.getThumbnailPath() != null) {
+            publish(userId, WatchlistEvent.Type.IMAGE_READY, dto);
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Fetches a title into the catalog, or waits for the fetch that another request
+     * for the same key has already started.
+     *
+     * @param key   the normalized title key
+     * @param title the requested title
+     * @return the catalog movie
+     */
+    private Movie fetchCoalesced(String key, String title) {
+        CompletableFuture<Movie> created = new CompletableFuture<>();
+        CompletableFuture<Movie> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // A fetch for this key may have completed between the caller's lookup and putIfAbsent
+            Movie movie = findInCatalog(key).orElseGet(() -> rememberAlias(key, fetchIntoCatalog(title)));
+            created.complete(movie);
+            return movie;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Finds a catalog movie by its title key or by a title that was resolved to it before.
+     */
+    private Optional<Movie> findInCatalog(String key) {
+        return repo.findFirstByTitleKey(key).or(() -> repo.findFirstByAlias(key));
+    }
+
+    /**
+     * Records the requested title key as an alias if the catalog movie is stored under
+     * another title, so that adding the same title again needs no OMDb or TMDB calls.
+     */
+    private Movie rememberAlias(String key, Movie movie) {
+        if (!key.equals(movie.getTitleKey())) {
+            try {
+                repo.saveAlias(key, movie.getId());
+            } catch (DataIntegrityViolationException e) {
+                // The movie was deleted meanwhile; the next add of this title fetches it again
+            }
+        }
+        return movie;
+    }
+
+    /**
+     * Fetches a movie from OMDb and TMDB and stores it in the shared catalog.
+     *
+     * @param title the requested title
+     * @return the catalog movie
+     */
+    private Movie fetchIntoCatalog(String title) {
+        prefetcher.recordFetch(title);
+        CompletableFuture<Movie> movieFuture = CompletableFuture.supplyAsync(() -> upstreamCache.movie(title, omdbClient::fetchMovie), upstreamExecutor);
+        CompletableFuture<String> imageFuture = CompletableFuture.supplyAsync(() -> imageService.fetchImage(title), upstreamExecutor);
+
+        Movie movie = movieFuture.join();
+        String imagePath = imageFuture.join();
+
+        // The requested title may differ from the canonical OMDb title of a movie already in the catalog
+        Optional<Movie> existing = findExisting(movie);
+        if (existing.isPresent()) {
+            return discardDuplicate(imagePath, existing.get());
+        }
+
+        movie.setTitleKey(titleKey(movie.getTitle()));
+        movie.setImagePath(imagePath);
+
+        Map<String, String> renditions = createRenditions(movie.getTitle(), imagePath);
+        movie.setThumbnailPath(renditions.get(ImageRenditionService.THUMB));
+        movie.setMediumPath(renditions.get(ImageRenditionService.MEDIUM));
+
+        try {
+            repo.save(movie);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same movie first
+            return discardDuplicate(imagePath, findExisting(movie).orElseThrow(() -> e));
+        }
+        imageStore.register(imagePath);
+        return movie;
+    }
+
+    /**
+     * Creates the renditions of a downloaded image. They are only an optimisation, so a
+     * failure leaves the movie without renditions and {@link #getImage} serves the original.
+     */
+    private Map<String, String> createRenditions(String title, String imagePath) {
+        try {
+            return renditionService.createRenditions(imagePath);
+        } catch (RuntimeException e) {
+            log.warn("Failed to create renditions of {} for '{}', serving the original", imagePath, title, e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Finds a freshly fetched movie in the catalog by its IMDb id or canonical title.
+     */
+    private Optional<Movie> findExisting(Movie fetched) {
+        if (fetched.getImdbId() != null) {
+            Optional<Movie> byImdbId = repo.findFirstByImdbId(fetched.getImdbId());
+            if (byImdbId.isPresent()) {
+                return byImdbId;
+            }
+        }
+        return repo.findFirstByTitleKey(titleKey(fetched.getTitle()));
+    }
+
+    /**
+     * Deletes images that were downloaded for a movie the catalog already has, unless they
+     * were written into the existing movie's own directory.
+     */
+    private Movie discardDuplicate(String imagePath, Movie existing) {
+        if (!sameDirectory(imagePath, existing.getImagePath())) {
+            imageStore.delete(imagePath);
+        }
+        return existing;
+    }
+
+
+    /**
+     * Fetches a page of movies from a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @param page   page index (zero-based)
+     * @param size   number of elements per page
+     * @return a Page of movies with the user's watched flag and rating
+     */
+    public Page<MovieDTO> getAllMovies(String userId, int page, int size) {
+        return findMovies(userId, new MovieFilter(), page, size);
+    }
 
     /**
-     * Fetches a page of movies from the watchlist.
+     * Fetches a page of the movies on a user's watchlist that match a filter.
+     * Served from the {@link ColumnarCatalog} without a database query.
      *
-     * @param page page index (zero-based)
-     * @param size number of elements per page
-     * @return a Page of Movie entities
+     * @param userId the owner of the watchlist
+     * @param filter genre, director, watched flag and minimum rating to match
+     * @param page   page index (zero-based)
+     * @param size   number of elements per page
+     * @return a Page of matching movies with the user's watched flag and rating
      */
-    public Page<Movie> getAllMovies(int page, int size) {
-        return repo.findAll(PageRequest.of(page, size));
+    public Page<MovieDTO> findMovies(String userId, MovieFilter filter, int page, int size) {
+        return catalog.find(userId, filter, page, size);
     }
 
     /**
-     * Updates the "watched" flag of a movie.
+     * Summarizes a user's watchlist: counts, average rating and movies per genre.
      *
-     * @param id      ID of the movie
+     * @param userId the owner of the watchlist
+     * @return the statistics
+     */
+    public WatchlistStats getStats(String userId) {
+        return catalog.stats(userId);
+    }
+
+    /**
+     * Fetches several movies of a user's watchlist in one query.
+     *
+     * @param userId the owner of the watchlist
+     * @param ids    IDs of the watchlist entries
+     * @return the movies in request order; ids that are not on the watchlist are skipped
+     */
+    public List<MovieDTO> getMovies(String userId, Collection<Long> ids) {
+        Map<Long, WatchlistEntry> found = findEntries(userId, ids);
+        return new LinkedHashSet<>(ids).stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(MovieService::toDto)
+                .toList();
+    }
+
+    /**
+     * Updates the "watched" flag of a movie on a user's watchlist.
+     *
+     * @param userId  the owner of the watchlist
+     * @param id      ID of the watchlist entry
      * @param watched new watched status
      */
-    public void updateWatched(Long id, boolean watched) {
-        Movie movie = repo.findById(id).orElseThrow();
-        movie.setWatched(watched);
-        repo.save(movie);
+    public void updateWatched(String userId, Long id, boolean watched) {
+        WatchlistEntry entry = entries.findByIdAndUserId(id, userId).orElseThrow();
+        entry.setWatched(watched);
+        entries.save(entry);
+        catalog.update(entry, versions.increment(userId));
+        publish(userId, WatchlistEvent.Type.WATCHED, toDto(entry));
     }
 
     /**
-     * Updates the rating of a movie.
+     * Updates the rating of a movie on a user's watchlist.
      *
-     * @param id     ID of the movie
+     * @param userId the owner of the watchlist
+     * @param id     ID of the watchlist entry
      * @param rating new rating (1–5)
      */
-    public void updateRating(Long id, int rating) {
-        Movie movie = repo.findById(id).orElseThrow();
-        movie.setRating(rating);
-        repo.save(movie);
+    public void updateRating(String userId, Long id, int rating) {
+        WatchlistEntry entry = entries.findByIdAndUserId(id, userId).orElseThrow();
+        entry.setRating(rating);
+        entries.save(entry);
+        catalog.update(entry, versions.increment(userId));
+        publish(userId, WatchlistEvent.Type.RATED, toDto(entry));
+    }
+
+    /**
+     * Deletes a movie from a user's watchlist.
+     * When no other user has the movie anymore, it is also removed from the
+     * catalog together with its stored images. The catalog row is only deleted if it is
+     * still unused at that moment, so a concurrent add of the movie by another user keeps it.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the watchlist entry
+     */
+    public void deleteMovie(String userId, Long id) {
+        Optional<WatchlistEntry> entry = entries.findByIdAndUserId(id, userId);
+        if (entry.isEmpty()) {
+            return;
+        }
+        entries.delete(entry.get());
+        catalog.remove(userId, id, versions.increment(userId));
+        publish(userId, WatchlistEvent.builder().type(WatchlistEvent.Type.DELETED).id(id).build());
+
+        Movie movie = entry.get().getMovie();
+        if (repo.deleteIfUnused(movie.getId()) > 0) {
+            imageStore.delete(movie.getImagePath());
+        }
     }
 
     /**
-     * Deletes a movie from the watchlist.
+     * Returns the stored image file of a movie and records the access for LRU eviction.
+     * A movie without the requested rendition gets its original image.
      *
-     * @param id ID of the movie
+     * @param userId    the owner of the watchlist
+     * @param id        ID of the watchlist entry
+     * @param rendition {@code thumb}, {@code medium} or {@code original}
+     * @return the image file, or empty if the movie has no such image (e.g. it was evicted)
      */
-    public void deleteMovie(Long id) {
-        repo.deleteById(id);
+    public Optional<Path> getImage(String userId, Long id, String rendition) {
+        Movie movie = findMovie(userId, id);
+
+        String path = switch (rendition) {
+            case ImageRenditionService.THUMB -> movie.getThumbnailPath();
+            case ImageRenditionService.MEDIUM -> movie.getMediumPath();
+            default -> null;
+        };
+        if (path == null) {
+            // No such rendition, e.g. because creating it failed
+            path = movie.getImagePath();
+        }
+
+        if (path == null || !Files.isRegularFile(Path.of(path))) {
+            return Optional.empty();
+        }
+        imageStore.touch(path);
+        return Optional.of(Path.of(path));
     }
 
     /**
      * Returns a list of similar movies based on TMDB API using stored title.
+     * The first titles of the list are queued for prefetching.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the reference watchlist entry
+     * @return list of titles of similar movies
+     */
+    public List<String> getSimilarMovies(String userId, Long id) {
+        return getSimilarMoviesWithFetchTime(userId, id).value();
+    }
+
+    /**
+     * Returns the similar movies of a watchlist entry like {@link #getSimilarMovies(String, Long)},
+     * together with the time their TMDB list was fetched.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the reference watchlist entry
+     * @return list of titles of similar movies and its fetch time in epoch milliseconds
+     */
+    public UpstreamCache.Timed<List<String>> getSimilarMoviesWithFetchTime(String userId, Long id) {
+        String title = findMovie(userId, id).getTitle();
+        Long tmdbId = upstreamCache.tmdbId(title, tmdbClient::fetchTmdbId);
+        UpstreamCache.Timed<List<String>> similar = upstreamCache.similarWithFetchTime(tmdbId, tmdbClient::fetchSimilarMovies);
+        prefetcher.prefetch(similar.value());
+        return similar;
+    }
+
+    /**
+     * Returns when the similar movies of a watchlist entry were fetched from TMDB, without
+     * calling upstream. Fails like {@link #getSimilarMovies(String, Long)} if the user has no such entry.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the reference watchlist entry
+     * @return the fetch time in epoch milliseconds, or empty if the similar movies are not cached
+     */
+    public OptionalLong similarMoviesFetchedAt(String userId, Long id) {
+        return upstreamCache.similarFetchedAt(findMovie(userId, id).getTitle());
+    }
+
+    /**
+     * Returns the similar movies of several watchlist entries. The entries are loaded in one
+     * query, and the similar lists missing from the cache are fetched concurrently; the TMDB
+     * rate limiter bounds how many upstream calls actually run. Entries whose lookup fails
+     * are reported as failed instead of failing the batch.
      *
-     * @param id ID of the reference movie
+     * @param userId the owner of the watchlist
+     * @param ids    IDs of the reference watchlist entries
+     * @return the similar titles by entry id, plus the ids that were not found or failed
+     */
+    public SimilarMoviesBatch getSimilarMovies(String userId, Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, CompletableFuture<List<String>>> lookups = new LinkedHashMap<>();
+        findEntries(userId, requested).forEach((id, entry) -> {
+            String title = entry.getMovie().getTitle();
+            lookups.put(id, CompletableFuture.supplyAsync(() -> similarTo(title), upstreamExecutor));
+        });
+
+        Map<Long, List<String>> similar = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (Long id : requested) {
+            CompletableFuture<List<String>> lookup = lookups.get(id);
+            if (lookup == null) {
+                notFound.add(id);
+                continue;
+            }
+            try {
+                similar.put(id, lookup.join());
+            } catch (CompletionException e) {
+                failed.add(id);
+            }
+        }
+        return SimilarMoviesBatch.builder().similar(similar).notFound(notFound).failed(failed).build();
+    }
+
+    /**
+     * Returns the titles TMDB lists as similar to the given title. Resolved TMDB ids and
+     * similar-movie lists are cached, so repeated lookups make no upstream calls.
+     *
+     * @param title the movie title
      * @return list of titles of similar movies
      */
-    public List<String> getSimilarMovies(Long id) {
-        Movie movie = repo.findById(id)
+    public List<String> similarTo(String title) {
+        Long tmdbId = upstreamCache.tmdbId(title, tmdbClient::fetchTmdbId);
+        return upstreamCache.similar(tmdbId, tmdbClient::fetchSimilarMovies);
+    }
+
+    private void publish(String userId, WatchlistEvent.Type type, MovieDTO entry) {
+        publish(userId, WatchlistEvent.builder().type(type).id(entry.getId()).movie(entry).build());
+    }
+
+    /**
+     * Pushes a committed change to the user's streams. The change must already have been
+     * counted in the user's watchlist version and applied to the catalog.
+     */
+    private void publish(String userId, WatchlistEvent event) {
+        eventBus.publish(userId, event);
+    }
+
+    private Map<Long, WatchlistEntry> findEntries(String userId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return entries.findByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(WatchlistEntry::getId, Function.identity()));
+    }
+
+    private Movie findMovie(String userId, Long id) {
+        return entries.findByIdAndUserId(id, userId)
+                .map(WatchlistEntry::getMovie)
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
-        Long tmdbId = tmdbClient.fetchTmdbId(movie.getTitle());
-        return tmdbClient.fetchSimilarMovies(tmdbId);
+    }
+
+    /**
+     * Builds the key used to look up a title in the catalog: trimmed, lower-cased and
+     * with runs of whitespace collapsed, so that {@code " The  Matrix"} and
+     * {@code "the matrix"} map to the same catalog movie.
+     */
+    static String titleKey(String title) {
+        return WHITESPACE.matcher(title.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    static boolean sameDirectory(String imagePath, String otherImagePath) {
+        return otherImagePath != null
+                && Path.of(imagePath).toAbsolutePath().getParent()
+                        .equals(Path.of(otherImagePath).toAbsolutePath().getParent());
+    }
+
+    /**
+     * Flattens a watchlist entry and its catalog movie into the API representation.
+     */
+    private static MovieDTO toDto(WatchlistEntry entry) {
+        return toDto(entry, entry.getMovie());
+    }
+
+    private static MovieDTO toDto(WatchlistEntry entry, Movie movie) {
+        return MovieDTO.builder()
+                .id(entry.getId())
+                .title(movie.getTitle())
+                .director(movie.getDirector())
+                .release_year(movie.getRelease_year())
+                .genre(movie.getGenre())
+                .watched(entry.isWatched())
+                .rating(entry.getRating())
+                .imagePath(movie.getImagePath())
+                .thumbnailPath(movie.getThumbnailPath())
+                .mediumPath(movie.getMediumPath())
+                .build();
     }
 }
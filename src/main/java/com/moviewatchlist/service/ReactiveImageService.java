@@ -0,0 +1,80 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.client.ReactiveTmdbClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Non-blocking counterpart of {@link ImageService}, used by the {@code reactive} profile.
+ * <p>
+ * Looks up the movie on TMDB, then downloads up to 3 images concurrently. Each image
+ * is streamed as a {@code Flux<DataBuffer>} straight into an {@code AsynchronousFileChannel},
+ * so neither the whole image is buffered in memory nor a thread is blocked on disk writes.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveImageService {
+
+    @Value("${tmdb.image.base-url:https://image.tmdb.org/t/p/w780}")
+    private String imageBaseUrl;
+
+    private final ReactiveTmdbClient tmdbClient;
+    private final ImageStore imageStore;
+    private final WebClient webClient;
+
+    /**
+     * Constructs the service.
+     *
+     * @param tmdbClient client used to find the movie and its images
+     * @param imageStore local image directory manager
+     * @param builder    builder for the client that downloads images
+     */
+    public ReactiveImageService(ReactiveTmdbClient tmdbClient, ImageStore imageStore, WebClient.Builder builder) {
+        this.tmdbClient = tmdbClient;
+        this.imageStore = imageStore;
+        this.webClient = builder.build();
+    }
+
+    /**
+     * Fetches up to 3 images for a movie title and stores them in the movie's directory.
+     *
+     * @param title the movie title to search for
+     * @return absolute path to the first downloaded image, which serves as the representative image
+     */
+    public Mono<String> fetchImage(String title) {
+        Path dir = imageStore.directoryFor(title);
+
+        return tmdbClient.fetchTmdbId(title)
+                .flatMap(id -> tmdbClient.fetchImagePaths(id, 3))
+                .filter(paths -> !paths.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("No images found for movie")))
+                .flatMap(paths -> Mono.fromCallable(() -> Files.createDirectories(dir))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenMany(Flux.range(0, paths.size())
+                                .flatMap(i -> download(imageBaseUrl + paths.get(i),
+                                        dir.resolve("image" + (i + 1) + ".jpg"))))
+                        .then(Mono.fromSupplier(() -> dir.resolve("image1.jpg").toAbsolutePath().toString())))
+                .onErrorMap(e -> new RuntimeException("Failed to fetch image: " + e.getMessage(), e));
+    }
+
+    private Mono<Void> download(String url, Path target) {
+        Flux<DataBuffer> body = webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+        return DataBufferUtils.write(body, target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,391 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.client.ReactiveOmdbClient;
+import com.moviewatchlist.client.ReactiveTmdbClient;
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.model.ReactiveMovie;
+import com.moviewatchlist.model.ReactiveWatchlistEntry;
+import com.moviewatchlist.repository.ReactiveMovieRepository;
+import com.moviewatchlist.repository.ReactiveWatchlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking counterpart of {@link MovieService}, used by the {@code reactive} profile.
+ * <p>
+ * Implements the same watchlist operations on R2DBC repositories and {@code WebClient}
+ * based clients, so a request waiting for a slow upstream holds no thread. The remaining
+ * blocking steps (image renditions and image directory bookkeeping) run on Reactor's
+ * bounded elastic scheduler, off the event loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveMovieService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveMovieService.class);
+
+    private final ReactiveMovieRepository repo;
+    private final ReactiveWatchlistEntryRepository entries;
+    private final ReactiveImageService imageService;
+    private final ImageRenditionService renditionService;
+    private final ImageStore imageStore;
+    private final ReactiveOmdbClient omdbClient;
+    private final ReactiveTmdbClient tmdbClient;
+
+    /**
+     * Catalog fetches in progress, by title key. Later adds of the same title wait for
+     * the running fetch instead of calling OMDb and TMDB again.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<ReactiveMovie>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs ReactiveMovieService with required dependencies.
+     *
+     * @param repo             catalog repository for shared movie metadata
+     * @param entries          repository for users' watchlist entries
+     * @param imageService     service to download movie images
+     * @param renditionService service to create scaled-down image renditions
+     * @param imageStore       manager of the local image directory
+     * @param omdbClient       client to fetch OMDb movie metadata
+     * @param tmdbClient       client to fetch TMDB data
+     */
+    public ReactiveMovieService(ReactiveMovieRepository repo, ReactiveWatchlistEntryRepository entries,
+                                ReactiveImageService imageService, ImageRenditionService renditionService,
+                                ImageStore imageStore, ReactiveOmdbClient omdbClient, ReactiveTmdbClient tmdbClient) {
+        this.repo = repo;
+        this.entries = entries;
+        this.imageService = imageService;
+        this.renditionService = renditionService;
+        this.imageStore = imageStore;
+        this.omdbClient = omdbClient;
+        this.tmdbClient = tmdbClient;
+    }
+
+    /**
+     * Adds a movie to a user's watchlist by title.
+     * If the movie is already in the catalog no external call is made; otherwise its
+     * data is fetched from OMDb and TMDB and stored in the catalog first.
+     * Concurrent adds of the same title share one fetch.
+     * Adding a movie that is already on the user's watchlist has no effect.
+     *
+     * @param userId the user adding the movie
+     * @param title  the title of the movie
+     * @return the user's watchlist entry for the movie
+     */
+    public Mono<MovieDTO> addMovie(String userId, String title) {
+        String key = MovieService.titleKey(title);
+        return findInCatalog(key)
+                .switchIfEmpty(Mono.defer(() -> fetchCoalesced(key, title)))
+                .flatMap(movie -> entries.findByUserIdAndMovieId(userId, movie.getId())
+                        .switchIfEmpty(Mono.defer(() -> saveEntry(userId, movie)))
+                        .map(entry -> toDto(entry, movie)))
+                .onErrorMap(e -> new RuntimeException("Failed to add movie: " + e.getMessage(), e));
+    }
+
+    /**
+     * Creates the user's entry. If a concurrent request of the same user created it
+     * first, the unique index rejects this one and the existing entry is returned instead.
+     */
+    private Mono<ReactiveWatchlistEntry> saveEntry(String userId, ReactiveMovie movie) {
+        return entries.save(ReactiveWatchlistEntry.builder()
+                        .userId(userId)
+                        .movieId(movie.getId())
+                        .build())
+                .flatMap(entry -> incrementVersion(userId).thenReturn(entry))
+                .onErrorResume(DataIntegrityViolationException.class, e ->
+                        entries.findByUserIdAndMovieId(userId, movie.getId()).switchIfEmpty(Mono.error(e)));
+    }
+
+    /**
+     * Fetches a title into the catalog, or waits for the fetch that another request
+     * for the same key has already started.
+     *
+     * @param key   the normalized title key
+     * @param title the requested title
+     * @return the catalog movie
+     */
+    private Mono<ReactiveMovie> fetchCoalesced(String key, String title) {
+        CompletableFuture<ReactiveMovie> created = new CompletableFuture<>();
+        CompletableFuture<ReactiveMovie> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return Mono.fromFuture(running, true);
+        }
+
+        // A fetch for this key may have completed between the caller's lookup and putIfAbsent
+        return findInCatalog(key)
+                .switchIfEmpty(Mono.defer(() -> fetchIntoCatalog(title).flatMap(movie -> rememberAlias(key, movie))))
+                .doOnNext(created::complete)
+                .doOnError(created::completeExceptionally)
+                .doFinally(signal -> {
+                    inFlight.remove(key, created);
+                    created.cancel(false);
+                });
+    }
+
+    /**
+     * Finds a catalog movie by its title key or by a title that was resolved to it before.
+     */
+    private Mono<ReactiveMovie> findInCatalog(String key) {
+        return repo.findFirstByTitleKey(key).switchIfEmpty(Mono.defer(() -> repo.findFirstByAlias(key)));
+    }
+
+    /**
+     * Records the requested title key as an alias if the catalog movie is stored under
+     * another title, so that adding the same title again needs no OMDb or TMDB calls.
+     */
+    private Mono<ReactiveMovie> rememberAlias(String key, ReactiveMovie movie) {
+        if (key.equals(movie.getTitleKey())) {
+            return Mono.just(movie);
+        }
+        return repo.saveAlias(key, movie.getId())
+                // The movie was deleted meanwhile; the next add of this title fetches it again
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty())
+                .thenReturn(movie);
+    }
+
+    /**
+     * Fetches a movie from OMDb and TMDB concurrently and stores it in the shared catalog.
+     *
+     * @param title the requested title
+     * @return the catalog movie
+     */
+    private Mono<ReactiveMovie> fetchIntoCatalog(String title) {
+        return Mono.zip(omdbClient.fetchMovie(title), imageService.fetchImage(title))
+                .flatMap(fetched -> {
+                    ReactiveMovie movie = fetched.getT1();
+                    String imagePath = fetched.getT2();
+                    String key = MovieService.titleKey(movie.getTitle());
+
+                    // The requested title may differ from the canonical OMDb title of a movie already in the catalog
+                    return findExisting(movie)
+                            .flatMap(existing -> discardDuplicate(imagePath, existing))
+                            .switchIfEmpty(Mono.defer(() -> {
+                                movie.setTitleKey(key);
+                                movie.setImagePath(imagePath);
+                                return Mono.fromCallable(() -> renditionService.createRenditions(imagePath))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        // Renditions are only an optimisation; getImage falls back to the original
+                                        .onErrorResume(RuntimeException.class, e -> {
+                                            log.warn("Failed to create renditions of {} for '{}', serving the original",
+                                                    imagePath, movie.getTitle(), e);
+                                            return Mono.just(Map.of());
+                                        })
+                                        .flatMap(renditions -> {
+                                            movie.setThumbnailPath(renditions.get(ImageRenditionService.THUMB));
+                                            movie.setMediumPath(renditions.get(ImageRenditionService.MEDIUM));
+                                            return repo.save(movie);
+                                        })
+                                        .flatMap(saved -> blocking(() -> imageStore.register(imagePath))
+                                                .thenReturn(saved))
+                                        // Another instance stored the same movie first
+                                        .onErrorResume(DataIntegrityViolationException.class, e -> findExisting(movie)
+                                                .switchIfEmpty(Mono.error(e))
+                                                .flatMap(existing -> discardDuplicate(imagePath, existing)));
+                            }));
+                });
+    }
+
+    /**
+     * Finds a freshly fetched movie in the catalog by its IMDb id or canonical title.
+     */
+    private Mono<ReactiveMovie> findExisting(ReactiveMovie fetched) {
+        Mono<ReactiveMovie> byTitle = repo.findFirstByTitleKey(MovieService.titleKey(fetched.getTitle()));
+        return fetched.getImdbId() == null
+                ? byTitle
+                : repo.findFirstByImdbId(fetched.getImdbId()).switchIfEmpty(byTitle);
+    }
+
+    /**
+     * Deletes images that were downloaded for a movie the catalog already has, unless they
+     * were written into the existing movie's own directory.
+     */
+    private Mono<ReactiveMovie> discardDuplicate(String imagePath, ReactiveMovie existing) {
+        return MovieService.sameDirectory(imagePath, existing.getImagePath())
+                ? Mono.just(existing)
+                : blocking(() -> imageStore.delete(imagePath)).thenReturn(existing);
+    }
+
+    /**
+     * Fetches a page of movies from a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @param page   page index (zero-based)
+     * @param size   number of elements per page
+     * @return a Page of movies with the user's watched flag and rating
+     */
+    public Mono<Page<MovieDTO>> getAllMovies(String userId, int page, int size) {
+        PageRequest request = PageRequest.of(page, size);
+        return entries.findPage(userId, size, request.getOffset())
+                .collectList()
+                .zipWith(entries.countByUserId(userId))
+                .map(rows -> new PageImpl<>(rows.getT1(), request, rows.getT2()));
+    }
+
+    /**
+     * Streams a user's whole watchlist. Rows are read from the database only as fast
+     * as the subscriber (ultimately the HTTP client) consumes them.
+     *
+     * @param userId the owner of the watchlist
+     * @return all movies on the watchlist
+     */
+    public Flux<MovieDTO> streamMovies(String userId) {
+        return entries.streamByUserId(userId);
+    }
+
+    /**
+     * Updates the "watched" flag of a movie on a user's watchlist.
+     *
+     * @param userId  the owner of the watchlist
+     * @param id      ID of the watchlist entry
+     * @param watched new watched status
+     * @return completes once the entry is stored
+     */
+    public Mono<Void> updateWatched(String userId, Long id, boolean watched) {
+        return findEntry(userId, id)
+                .flatMap(entry -> {
+                    entry.setWatched(watched);
+                    return entries.save(entry);
+                })
+                .flatMap(entry -> incrementVersion(userId));
+    }
+
+    /**
+     * Updates the rating of a movie on a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the watchlist entry
+     * @param rating new rating (1–5)
+     * @return completes once the entry is stored
+     */
+    public Mono<Void> updateRating(String userId, Long id, int rating) {
+        return findEntry(userId, id)
+                .flatMap(entry -> {
+                    entry.setRating(rating);
+                    return entries.save(entry);
+                })
+                .flatMap(entry -> incrementVersion(userId));
+    }
+
+    /**
+     * Deletes a movie from a user's watchlist.
+     * When no other user has the movie anymore, it is also removed from the
+     * catalog together with its stored images.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the watchlist entry
+     * @return completes once the entry (and possibly the catalog movie) is deleted
+     */
+    public Mono<Void> deleteMovie(String userId, Long id) {
+        return entries.findByIdAndUserId(id, userId)
+                .flatMap(entry -> entries.delete(entry)
+                        .then(incrementVersion(userId))
+                        .then(repo.findById(entry.getMovieId()))
+                        .flatMap(movie -> repo.deleteIfUnused(movie.getId())
+                                // Another user may have added the movie again since the entry was deleted
+                                .filter(deleted -> deleted > 0)
+                                .flatMap(deleted -> blocking(() -> imageStore.delete(movie.getImagePath())))))
+                .then();
+    }
+
+    /**
+     * Returns the stored image file of a movie and records the access for LRU eviction.
+     * A movie without the requested rendition gets its original image.
+     *
+     * @param userId    the owner of the watchlist
+     * @param id        ID of the watchlist entry
+     * @param rendition {@code thumb}, {@code medium} or {@code original}
+     * @return the image file, or empty if the movie has no such image (e.g. it was evicted)
+     */
+    public Mono<Path> getImage(String userId, Long id, String rendition) {
+        return findMovie(userId, id)
+                .mapNotNull(movie -> {
+                    String path = switch (rendition) {
+                        case ImageRenditionService.THUMB -> movie.getThumbnailPath();
+                        case ImageRenditionService.MEDIUM -> movie.getMediumPath();
+                        default -> null;
+                    };
+                    // No such rendition, e.g. because creating it failed
+                    return path != null ? path : movie.getImagePath();
+                })
+                .map(Path::of)
+                // The file check and the access record touch the disk and the store's lock
+                .flatMap(path -> Mono.fromCallable(() -> {
+                            if (!Files.isRegularFile(path)) {
+                                return null;
+                            }
+                            imageStore.touch(path.toString());
+                            return path;
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Returns a list of similar movies based on TMDB API using stored title.
+     *
+     * @param userId the owner of the watchlist
+     * @param id     ID of the reference watchlist entry
+     * @return list of titles of similar movies
+     */
+    public Mono<List<String>> getSimilarMovies(String userId, Long id) {
+        return findMovie(userId, id)
+                .flatMap(movie -> tmdbClient.fetchTmdbId(movie.getTitle()))
+                .flatMap(tmdbClient::fetchSimilarMovies);
+    }
+
+    private Mono<ReactiveWatchlistEntry> findEntry(String userId, Long id) {
+        return entries.findByIdAndUserId(id, userId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Movie not found")));
+    }
+
+    /**
+     * Counts a committed change of a user's watchlist, like {@link WatchlistVersions}.
+     */
+    private Mono<Void> incrementVersion(String userId) {
+        return entries.incrementVersion(userId)
+                // A concurrent first change of the user created the row; count this one on top
+                .onErrorResume(DataIntegrityViolationException.class, e -> entries.incrementVersion(userId))
+                .then();
+    }
+
+    private Mono<ReactiveMovie> findMovie(String userId, Long id) {
+        return findEntry(userId, id).flatMap(entry -> repo.findById(entry.getMovieId()));
+    }
+
+    private static MovieDTO toDto(ReactiveWatchlistEntry entry, ReactiveMovie movie) {
+        return MovieDTO.builder()
+                .id(entry.getId())
+                .title(movie.getTitle())
+                .director(movie.getDirector())
+                .release_year(movie.getRelease_year())
+                .genre(movie.getGenre())
+                .watched(entry.isWatched())
+                .rating(entry.getRating())
+                .imagePath(movie.getImagePath())
+                .thumbnailPath(movie.getThumbnailPath())
+                .mediumPath(movie.getMediumPath())
+                .build();
+    }
+
+    /**
+     * Runs blocking file system work on the bounded elastic scheduler.
+     */
+    private static Mono<Void> blocking(Runnable task) {
+        return Mono.fromRunnable(task).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -0,0 +1,246 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.client.OmdbClient;
+import com.moviewatchlist.client.RateLimiter;
+import com.moviewatchlist.repository.MovieRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Warms the {@link UpstreamCache} for titles a user is likely to add next.
+ * <p>
+ * After a similar-movies list is served, the OMDb metadata and TMDB image paths of its
+ * first {@code prefetch.top-n} titles are looked up in the background, so that adding one
+ * of them only has to download the images. Titles already in the catalog or already cached
+ * are skipped.
+ * <p>
+ * Prefetching only uses spare upstream quota: each title takes its TMDB permits from a
+ * limiter of its own that caps prefetching at {@code prefetch.rate-share} of
+ * {@code tmdb.rate-limit.per-second}, and from the limiter that all TMDB calls share without
+ * waiting, so it never delays a user request. Its OMDb fetches are capped at
+ * {@code prefetch.omdb-rate-limit.per-second}. A title for which any of these limiters has no
+ * permits left is dropped, as are titles arriving while {@code prefetch.queue-size} titles are waiting.
+ * All lookups run on a single low-priority thread.
+ * <p>
+ * The outcome is published as the {@code prefetch.titles} and {@code prefetch.adds} counters
+ * and the {@code prefetch.hit.ratio} gauge, the share of prefetched titles that were added
+ * afterwards. Prefetching is off unless {@code prefetch.enabled=true}.
+ */
+@Component
+@Profile("!reactive")
+public class SimilarPrefetcher {
+
+    private final MovieRepository repo;
+    private final OmdbClient omdbClient;
+    private final ImageService imageService;
+    private final UpstreamCache upstreamCache;
+    private final RateLimiter shareLimiter;
+    private final RateLimiter omdbLimiter;
+    private final boolean enabled;
+    private final int topN;
+    private final int maxTracked;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Title keys that are queued or being prefetched, so that a title is only queued once.
+     */
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Keys of prefetched titles that have not been added yet, oldest first. Guarded by {@link #lock}.
+     */
+    private final LinkedHashMap<String, Boolean> unused;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter prefetched;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Constructs the prefetcher.
+     *
+     * @param repo            catalog repository, to skip titles that need no fetch
+     * @param omdbClient      client to fetch OMDb movie metadata
+     * @param imageService    looks up TMDB image paths through the shared TMDB limiter
+     * @param upstreamCache   cache that is warmed
+     * @param registry        registry for the prefetch metrics
+     * @param enabled         whether similar lists trigger prefetching
+     * @param topN            number of titles prefetched per similar list
+     * @param rateShare       maximum share of the TMDB rate limit used for prefetching
+     * @param tmdbRate        the TMDB rate limit in requests per second
+     * @param omdbRate        maximum OMDb requests per second used for prefetching
+     * @param queueSize       maximum number of titles waiting to be prefetched
+     * @param maxTracked      maximum number of prefetched titles remembered for the hit ratio
+     */
+    public SimilarPrefetcher(MovieRepository repo, OmdbClient omdbClient, ImageService imageService,
+                             UpstreamCache upstreamCache, MeterRegistry registry,
+                             @Value("${prefetch.enabled:false}") boolean enabled,
+                             @Value("${prefetch.top-n:3}") int topN,
+                             @Value("${prefetch.rate-share:0.25}") double rateShare,
+                             @Value("${tmdb.rate-limit.per-second:40}") double tmdbRate,
+                             @Value("${prefetch.omdb-rate-limit.per-second:1}") double omdbRate,
+                             @Value("${prefetch.queue-size:64}") int queueSize,
+                             @Value("${cache.upstream.max-entries:10000}") int maxTracked) {
+        this.repo = repo;
+        this.omdbClient = omdbClient;
+        this.imageService = imageService;
+        this.upstreamCache = upstreamCache;
+        this.shareLimiter = new RateLimiter(rateShare * tmdbRate, ImageService.TMDB_CALLS_PER_LOOKUP);
+        this.omdbLimiter = new RateLimiter(omdbRate, 1);
+        this.enabled = enabled && topN > 0 && rateShare > 0;
+        this.topN = topN;
+        this.maxTracked = maxTracked;
+        this.unused = new LinkedHashMap<>();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "prefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+
+        this.prefetched = titles(registry, "prefetched");
+        this.skipped = titles(registry, "skipped");
+        this.failed = titles(registry, "failed");
+        this.hits = adds(registry, "hit");
+        this.misses = adds(registry, "miss");
+        Gauge.builder("prefetch.hit.ratio", this, SimilarPrefetcher::hitRatio)
+                .description("Share of prefetched titles that were added to a watchlist afterwards")
+                .register(registry);
+    }
+
+    /**
+     * Queues the first titles of a similar-movies list for prefetching. Returns immediately.
+     *
+     * @param titles the similar titles, most similar first
+     */
+    public void prefetch(List<String> titles) {
+        if (!enabled) {
+            return;
+        }
+        for (String title : titles.subList(0, Math.min(topN, titles.size()))) {
+            String key = MovieService.titleKey(title);
+            if (!queued.add(key)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> warm(title, key));
+            } catch (RejectedExecutionException e) {
+                queued.remove(key);
+                skipped.increment();
+            }
+        }
+    }
+
+    /**
+     * Records that a title had to be fetched for the catalog, counting whether it was prefetched.
+     *
+     * @param title the requested title
+     */
+    public void recordFetch(String title) {
+        if (!enabled) {
+            return;
+        }
+        String key = MovieService.titleKey(title);
+        lock.lock();
+        try {
+            if (unused.remove(key) != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the share of prefetched titles that were added to a watchlist afterwards.
+     *
+     * @return the hit ratio, {@code 0} before anything was prefetched
+     */
+    public double hitRatio() {
+        double total = prefetched.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * Stops the prefetch thread; queued titles are dropped.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void warm(String title, String key) {
+        try {
+            if (upstreamCache.isWarm(title)
+                    || repo.findFirstByTitleKey(key).or(() -> repo.findFirstByAlias(key)).isPresent()) {
+                return;
+            }
+            // Check the own limiters first, so that a refused title takes nothing from the shared limiter
+            Optional<List<String>> imagePaths = omdbLimiter.tryAcquire(Duration.ZERO)
+                    && shareLimiter.tryAcquire(ImageService.TMDB_CALLS_PER_LOOKUP, Duration.ZERO)
+                    ? imageService.tryFindImagePaths(title, Duration.ZERO)
+                    : Optional.empty();
+            if (imagePaths.isEmpty()) {
+                skipped.increment();
+                return;
+            }
+            upstreamCache.images(title, name -> imagePaths.get());
+            upstreamCache.movie(title, omdbClient::fetchMovie);
+            remember(key);
+            prefetched.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+        } finally {
+            queued.remove(key);
+        }
+    }
+
+    private void remember(String key) {
+        lock.lock();
+        try {
+            unused.put(key, Boolean.TRUE);
+            if (unused.size() > maxTracked) {
+                unused.remove(unused.keySet().iterator().next());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter titles(MeterRegistry registry, String result) {
+        return Counter.builder("prefetch.titles")
+                .description("Titles from similar-movies lists considered for prefetching")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter adds(MeterRegistry registry, String result) {
+        return Counter.builder("prefetch.adds")
+                .description("Catalog fetches of added titles, by whether the title was prefetched")
+                .tag("result", result)
+                .register(registry);
+    }
+}
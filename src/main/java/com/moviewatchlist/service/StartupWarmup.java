@@ -0,0 +1,80 @@
+package com.moviewatchlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs synthetic read traffic through the {@link MovieService} hot paths during startup.
+ * <p>
+ * Application runners complete before Spring Boot switches the readiness state to
+ * {@code ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} keeps reporting
+ * {@code OUT_OF_SERVICE} until the warm-up is done. By then the JIT has compiled the
+ * list and similar-movies paths (repository queries, DTO mapping, JSON serialization)
+ * and the lookups restored from the {@link UpstreamCache} snapshot have been exercised.
+ * <p>
+ * The warm-up only reads: it lists the watchlist of a synthetic user and looks up similar
+ * movies for titles whose TMDB responses are already cached, so it makes no upstream calls.
+ * It is bounded by {@code warmup.iterations} and {@code warmup.max-duration} and can be
+ * turned off with {@code warmup.enabled=false}.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    /**
+     * User id of the synthetic warm-up requests; it never owns any watchlist entries.
+     */
+    static final String WARMUP_USER = "__warmup__";
+
+    private final MovieService movieService;
+    private final UpstreamCache upstreamCache;
+    private final ObjectMapper mapper;
+    private final int iterations;
+    private final int titles;
+    private final Duration maxDuration;
+
+    /**
+     * Constructs the warm-up.
+     *
+     * @param movieService  the service whose hot paths are exercised
+     * @param upstreamCache source of titles whose similar movies can be looked up without upstream calls
+     * @param mapper        the application's JSON mapper, as used by the controllers
+     * @param iterations    number of warm-up rounds
+     * @param titles        maximum number of cached titles looked up per round
+     * @param maxDuration   upper bound on the warm-up time
+     */
+    public StartupWarmup(MovieService movieService, UpstreamCache upstreamCache, ObjectMapper mapper,
+                         @Value("${warmup.iterations:200}") int iterations,
+                         @Value("${warmup.titles:50}") int titles,
+                         @Value("${warmup.max-duration:20s}") Duration maxDuration) {
+        this.movieService = movieService;
+        this.upstreamCache = upstreamCache;
+        this.mapper = mapper;
+        this.iterations = iterations;
+        this.titles = titles;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws JsonProcessingException {
+        List<String> cachedTitles = upstreamCache.similarTitles(titles);
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            mapper.writeValueAsBytes(movieService.getAllMovies(WARMUP_USER, 0, 10).getContent());
+            for (String title : cachedTitles) {
+                mapper.writeValueAsBytes(movieService.similarTo(title));
+            }
+        }
+    }
+}
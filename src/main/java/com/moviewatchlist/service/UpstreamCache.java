@@ -0,0 +1,527 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.model.Movie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of upstream responses: OMDb metadata by title, resolved TMDB ids
+ * by title, similar-movie lists by TMDB id and TMDB image paths by title.
+ * <p>
+ * Every entry expires {@code cache.upstream.ttl} after it was fetched from upstream, so that
+ * e.g. a similar-movies list is refreshed even on an instance that runs for weeks.
+ * <p>
+ * On shutdown the most recently used entries are written to a compact binary snapshot
+ * ({@code cache.snapshot.path}), which is loaded again on startup so that a restarted
+ * instance does not begin with every lookup at full upstream latency. The snapshot keeps
+ * the original fetch time of each entry, and entries that have expired by then are not
+ * loaded, so restarts do not extend how long an entry lives. An unreadable snapshot is skipped.
+ * <p>
+ * Each map holds at most {@code cache.upstream.max-entries} entries and evicts the least
+ * recently used one first.
+ */
+@Component
+@Profile("!reactive")
+public class UpstreamCache {
+
+    /**
+     * "MWUC" followed by the format version; bump the version whenever the layout changes.
+     */
+    private static final int MAGIC = 0x4D575543;
+    private static final int VERSION = 3;
+
+    private final int maxEntries;
+    private final Path snapshotPath;
+    private final Duration ttl;
+    private final Clock clock;
+
+    /**
+     * OMDb metadata by title key, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Timed<Metadata>> movies;
+
+    /**
+     * Resolved TMDB id by title key, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Timed<Long>> tmdbIds;
+
+    /**
+     * Similar-movie titles by TMDB id, in least-recently-used order.
+     */
+    private final LinkedHashMap<Long, Timed<List<String>>> similar;
+
+    /**
+     * TMDB image file paths (posters first) by title key, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Timed<List<String>>> images;
+
+    /**
+     * Guards the four maps. Upstream calls are never made while holding it.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Constructs the cache.
+     *
+     * @param maxEntries   maximum number of entries per map
+     * @param snapshotPath file the snapshot is written to and loaded from; empty to disable snapshots
+     * @param ttl          how long an entry is used after it was fetched
+     */
+    @Autowired
+    public UpstreamCache(@Value("${cache.upstream.max-entries:10000}") int maxEntries,
+                         @Value("${cache.snapshot.path:cache/upstream.snapshot}") String snapshotPath,
+                         @Value("${cache.upstream.ttl:24h}") Duration ttl) {
+        this(maxEntries, snapshotPath, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs the cache with an explicit clock.
+     *
+     * @param maxEntries   maximum number of entries per map
+     * @param snapshotPath file the snapshot is written to and loaded from; empty to disable snapshots
+     * @param ttl          how long an entry is used after it was fetched
+     * @param clock        source of the current time
+     */
+    public UpstreamCache(int maxEntries, String snapshotPath, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Paths.get(snapshotPath).toAbsolutePath();
+        this.ttl = ttl;
+        this.clock = clock;
+        this.movies = lruMap();
+        this.tmdbIds = lruMap();
+        this.similar = lruMap();
+        this.images = lruMap();
+    }
+
+    /**
+     * Returns the OMDb metadata of a title, calling OMDb only if it is not cached.
+     * Every call returns a new, unsaved {@link Movie}.
+     *
+     * @param title the requested title
+     * @param fetch calls OMDb
+     * @return the movie metadata
+     */
+    public Movie movie(String title, Function<String, Movie> fetch) {
+        String key = MovieService.titleKey(title);
+        Metadata cached = get(movies, key);
+        if (cached != null) {
+            return cached.toMovie();
+        }
+        Movie fetched = fetch.apply(title);
+        put(movies, key, Metadata.of(fetched), clock.millis());
+        return fetched;
+    }
+
+    /**
+     * Returns the TMDB id of a title, searching TMDB only if it is not cached.
+     *
+     * @param title the movie title
+     * @param fetch calls the TMDB search
+     * @return the TMDB id
+     */
+    public Long tmdbId(String title, Function<String, Long> fetch) {
+        String key = MovieService.titleKey(title);
+        Long cached = get(tmdbIds, key);
+        if (cached != null) {
+            return cached;
+        }
+        Long fetched = fetch.apply(title);
+        put(tmdbIds, key, fetched, clock.millis());
+        return fetched;
+    }
+
+    /**
+     * Returns the titles similar to a TMDB movie, calling TMDB only if they are not cached.
+     *
+     * @param tmdbId the TMDB id
+     * @param fetch  calls the TMDB similar-movies endpoint
+     * @return the similar titles (unmodifiable)
+     */
+    public List<String> similar(Long tmdbId, Function<Long, List<String>> fetch) {
+        return similarWithFetchTime(tmdbId, fetch).value();
+    }
+
+    /**
+     * Returns the titles similar to a TMDB movie together with the time they were fetched,
+     * calling TMDB only if they are not cached.
+     *
+     * @param tmdbId the TMDB id
+     * @param fetch  calls the TMDB similar-movies endpoint
+     * @return the similar titles (unmodifiable) and their fetch time
+     */
+    public Timed<List<String>> similarWithFetchTime(Long tmdbId, Function<Long, List<String>> fetch) {
+        Timed<List<String>> cached = getTimed(similar, tmdbId);
+        if (cached != null) {
+            return cached;
+        }
+        Timed<List<String>> fetched = new Timed<>(List.copyOf(fetch.apply(tmdbId)), clock.millis());
+        put(similar, tmdbId, fetched.value(), fetched.fetchedAt());
+        return fetched;
+    }
+
+    /**
+     * Returns when the similar titles of a title were fetched, without calling upstream.
+     *
+     * @param title the movie title
+     * @return the fetch time in epoch milliseconds, or empty if its TMDB id or similar titles are not cached
+     */
+    public OptionalLong similarFetchedAt(String title) {
+        String key = MovieService.titleKey(title);
+        long now = clock.millis();
+        lock.lock();
+        try {
+            Timed<Long> tmdbId = tmdbIds.get(key);
+            Timed<List<String>> list = isFresh(tmdbId, now) ? similar.get(tmdbId.value()) : null;
+            return isFresh(list, now) ? OptionalLong.of(list.fetchedAt()) : OptionalLong.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the TMDB image paths of a title, calling TMDB only if they are not cached.
+     *
+     * @param title the movie title
+     * @param fetch calls the TMDB search and images endpoints
+     * @return the image paths (unmodifiable)
+     */
+    public List<String> images(String title, Function<String, List<String>> fetch) {
+        String key = MovieService.titleKey(title);
+        List<String> cached = get(images, key);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> fetched = List.copyOf(fetch.apply(title));
+        put(images, key, fetched, clock.millis());
+        return fetched;
+    }
+
+    /**
+     * Checks whether adding a title would need neither OMDb nor the TMDB image lookups.
+     * Does not count as a use for the LRU order.
+     *
+     * @param title the movie title
+     * @return {@code true} if the OMDb metadata and image paths are cached and not expired
+     */
+    public boolean isWarm(String title) {
+        String key = MovieService.titleKey(title);
+        long now = clock.millis();
+        lock.lock();
+        try {
+            return isFresh(movies.get(key), now) && isFresh(images.get(key), now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the titles whose TMDB id and similar-movies list are both cached, most
+     * recently used first. Looking these up again makes no upstream call.
+     *
+     * @param limit maximum number of titles
+     * @return title keys
+     */
+    public List<String> similarTitles(int limit) {
+        long now = clock.millis();
+        lock.lock();
+        try {
+            List<String> titles = new ArrayList<>();
+            for (Map.Entry<String, Timed<Long>> entry : tmdbIds.entrySet()) {
+                if (isFresh(entry.getValue(), now) && isFresh(similar.get(entry.getValue().value()), now)) {
+                    titles.add(entry.getKey());
+                }
+            }
+            Collections.reverse(titles);
+            return titles.subList(0, Math.min(limit, titles.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total number of cached entries.
+     *
+     * @return number of entries in all maps
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return movies.size() + tmdbIds.size() + similar.size() + images.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the entries of the snapshot written by the previous instance that have not expired yet.
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotPath == null || !Files.isRegularFile(snapshotPath)) {
+            return;
+        }
+        try {
+            readSnapshot(snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            // A truncated or outdated snapshot only costs a cold start
+            lock.lock();
+            try {
+                movies.clear();
+                tmdbIds.clear();
+                similar.clear();
+                images.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the cache to the snapshot file. The file is replaced atomically so that a
+     * crash while writing leaves the previous snapshot intact.
+     */
+    @PreDestroy
+    public void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            writeSnapshot(tmp);
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Best effort: the next instance starts cold
+        }
+    }
+
+    /**
+     * Layout: magic, version, then the four maps, each as an entry count followed by the
+     * entries from least to most recently used, so that reading them back in file order
+     * restores the LRU order. Each entry starts with its fetch time in epoch milliseconds.
+     * Strings are modified UTF-8 with a two-byte length.
+     */
+    void writeSnapshot(Path file) throws IOException {
+        lock.lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(movies.size());
+            for (Map.Entry<String, Timed<Metadata>> entry : movies.entrySet()) {
+                out.writeLong(entry.getValue().fetchedAt());
+                out.writeUTF(entry.getKey());
+                entry.getValue().value().write(out);
+            }
+
+            out.writeInt(tmdbIds.size());
+            for (Map.Entry<String, Timed<Long>> entry : tmdbIds.entrySet()) {
+                out.writeLong(entry.getValue().fetchedAt());
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().value());
+            }
+
+            out.writeInt(similar.size());
+            for (Map.Entry<Long, Timed<List<String>>> entry : similar.entrySet()) {
+                out.writeLong(entry.getValue().fetchedAt());
+                out.writeLong(entry.getKey());
+                writeList(out, entry.getValue().value());
+            }
+
+            out.writeInt(images.size());
+            for (Map.Entry<String, Timed<List<String>>> entry : images.entrySet()) {
+                out.writeLong(entry.getValue().fetchedAt());
+                out.writeUTF(entry.getKey());
+                writeList(out, entry.getValue().value());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format: " + file);
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long fetchedAt = in.readLong();
+                String key = in.readUTF();
+                putUnexpired(movies, key, Metadata.read(in), fetchedAt);
+            }
+
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long fetchedAt = in.readLong();
+                String key = in.readUTF();
+                putUnexpired(tmdbIds, key, in.readLong(), fetchedAt);
+            }
+
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long fetchedAt = in.readLong();
+                long tmdbId = in.readLong();
+                putUnexpired(similar, tmdbId, readList(in), fetchedAt);
+            }
+
+            count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long fetchedAt = in.readLong();
+                String key = in.readUTF();
+                putUnexpired(images, key, readList(in), fetchedAt);
+            }
+        }
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return List.copyOf(values);
+    }
+
+    /**
+     * Returns a cached value, removing it instead if it has expired.
+     */
+    private <K, V> V get(LinkedHashMap<K, Timed<V>> map, K key) {
+        Timed<V> cached = getTimed(map, key);
+        return cached != null ? cached.value() : null;
+    }
+
+    /**
+     * Returns a cached value with its fetch time, removing it instead if it has expired.
+     */
+    private <K, V> Timed<V> getTimed(LinkedHashMap<K, Timed<V>> map, K key) {
+        long now = clock.millis();
+        lock.lock();
+        try {
+            Timed<V> cached = map.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (!isFresh(cached, now)) {
+                map.remove(key);
+                return null;
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <K, V> void put(LinkedHashMap<K, Timed<V>> map, K key, V value, long fetchedAt) {
+        lock.lock();
+        try {
+            map.put(key, new Timed<>(value, fetchedAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <K, V> void putUnexpired(LinkedHashMap<K, Timed<V>> map, K key, V value, long fetchedAt) {
+        if (clock.millis() - fetchedAt < ttl.toMillis()) {
+            put(map, key, value, fetchedAt);
+        }
+    }
+
+    private boolean isFresh(Timed<?> entry, long now) {
+        return entry != null && now - entry.fetchedAt() < ttl.toMillis();
+    }
+
+    private <K, V> LinkedHashMap<K, V> lruMap() {
+        return new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * A cached value and the time it was fetched from upstream, in epoch milliseconds.
+     *
+     * @param value     the cached value
+     * @param fetchedAt when it was fetched
+     */
+    public record Timed<V>(V value, long fetchedAt) {
+    }
+
+    /**
+     * The OMDb fields of a catalog movie.
+     */
+    private record Metadata(String title, String director, String releaseYear, String genre, String imdbId) {
+
+        static Metadata of(Movie movie) {
+            return new Metadata(movie.getTitle(), movie.getDirector(), movie.getRelease_year(),
+                    movie.getGenre(), movie.getImdbId());
+        }
+
+        Movie toMovie() {
+            return Movie.builder()
+                    .title(title)
+                    .director(director)
+                    .release_year(releaseYear)
+                    .genre(genre)
+                    .imdbId(imdbId)
+                    .build();
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeNullable(out, title);
+            writeNullable(out, director);
+            writeNullable(out, releaseYear);
+            writeNullable(out, genre);
+            writeNullable(out, imdbId);
+        }
+
+        static Metadata read(DataInputStream in) throws IOException {
+            return new Metadata(readNullable(in), readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+        }
+
+        private static void writeNullable(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readNullable(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.moviewatchlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.dto.WatchlistEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans watchlist changes out to the users' open event streams.
+ * <p>
+ * Every user has a stream of their own: published events get consecutive sequence numbers
+ * within it and are kept in a bounded buffer, so publishing never copies an event per
+ * subscriber and never waits for a client. Each subscriber only holds a cursor into its
+ * user's stream; a small dispatcher pool copies the events from there to its {@link Sink},
+ * one drain at a time per subscriber. Other users' events are never looked at, and only the
+ * {@code events.max-users} most recently active streams are kept once nobody subscribes to them.
+ * <ul>
+ *     <li><b>Resume</b> – event ids are {@code <stream>-<sequence>}, where the stream part is
+ *     random for every stream. A client that reconnects with the id of the last event it
+ *     received gets every later event that is still buffered. If the buffer has already
+ *     dropped some of them, or the id comes from another instance, from before a restart or
+ *     from an evicted stream, it gets a reset instead and has to reload its watchlist.</li>
+ *     <li><b>Slow consumers</b> – a subscriber whose oldest event not sent yet falls more than
+ *     {@code events.max-lag} events behind the head of its user's stream is disconnected before
+ *     the buffer drops that event. Its client can reconnect and resume from its last event id.</li>
+ *     <li><b>Stuck clients</b> – a write that takes longer than {@code events.send-timeout}
+ *     disconnects the subscriber and interrupts the dispatcher thread. Until the write gives
+ *     up, the pool runs an extra thread, so other streams keep being served.</li>
+ *     <li><b>Heartbeats</b> – every {@code events.heartbeat} each stream gets a comment line,
+ *     which keeps proxies from closing idle streams and detects clients that went away.</li>
+ * </ul>
+ */
+@Component
+@Profile("!reactive")
+public class WatchlistEventBus {
+
+    /**
+     * Receives the events of one subscription, in order. Heartbeats may be sent from
+     * another thread than events, so implementations must be thread-safe.
+     */
+    public interface Sink {
+
+        /**
+         * Delivers an event. Should give up when the calling thread is interrupted.
+         *
+         * @param event the event
+         * @throws IOException if the client is gone
+         */
+        void send(Event event) throws IOException;
+
+        /**
+         * Tells the client that events after its last event id are no longer available.
+         *
+         * @throws IOException if the client is gone
+         */
+        void reset() throws IOException;
+
+        /**
+         * Sends a keep-alive.
+         *
+         * @throws IOException if the client is gone
+         */
+        void heartbeat() throws IOException;
+
+        /**
+         * Ends the stream, e.g. because the subscriber fell too far behind.
+         */
+        void close();
+    }
+
+    /**
+     * A published event.
+     *
+     * @param id   stream and sequence number, usable as {@code Last-Event-ID}
+     * @param seq  position in the user's stream
+     * @param name the SSE event name
+     * @param data the event as JSON
+     */
+    public record Event(String id, long seq, String name, String data) {
+    }
+
+    private final ObjectMapper mapper;
+    private final int bufferSize;
+    private final int maxLag;
+    private final int maxUsers;
+    private final int dispatchThreads;
+    private final Duration sendTimeout;
+
+    /**
+     * Stream of every user that published or subscribed recently, from least to most
+     * recently used. Guarded by {@link #lock}.
+     */
+    private final LinkedHashMap<String, UserStream> streams = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * Number of dispatcher threads blocked in a write that timed out. Guarded by {@link #lock}.
+     */
+    private int stuckThreads;
+
+    /**
+     * Guards {@link #streams}, the streams' buffers, {@link #stuckThreads} and the cursors of
+     * the subscriptions. Sinks are never called while holding it.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService heartbeats;
+
+    /**
+     * Constructs the bus.
+     *
+     * @param mapper          JSON mapper for the event payloads
+     * @param bufferSize      number of events kept per user for resuming streams
+     * @param maxLag          number of the user's events a subscriber may fall behind before it is disconnected
+     * @param maxUsers        number of user streams kept once they have no subscribers
+     * @param dispatchThreads threads that write events to the streams
+     * @param heartbeat       interval between keep-alives
+     * @param sendTimeout     time a single write may take before the subscriber is disconnected
+     */
+    public WatchlistEventBus(ObjectMapper mapper,
+                             @Value("${events.buffer-size:4096}") int bufferSize,
+                             @Value("${events.max-lag:1024}") int maxLag,
+                             @Value("${events.max-users:10000}") int maxUsers,
+                             @Value("${events.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${events.heartbeat:15s}") Duration heartbeat,
+                             @Value("${events.send-timeout:10s}") Duration sendTimeout) {
+        this.mapper = mapper;
+        this.bufferSize = bufferSize;
+        this.maxLag = Math.min(maxLag, bufferSize);
+        this.maxUsers = maxUsers;
+        this.dispatchThreads = dispatchThreads;
+        this.sendTimeout = sendTimeout;
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("events-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("events-heartbeat-"));
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes a change of a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @param change the change
+     */
+    public void publish(String userId, WatchlistEvent change) {
+        String data;
+        try {
+            data = mapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
+
+        List<Subscription> wake = new ArrayList<>();
+        List<Subscription> slow = new ArrayList<>();
+        lock.lock();
+        try {
+            UserStream stream = stream(userId);
+            long seq = stream.nextSeq++;
+            stream.events.addLast(new Event(stream.token + "-" + seq, seq, change.getType().eventName(), data));
+            if (stream.events.size() > bufferSize) {
+                stream.events.removeFirst();
+            }
+            for (Subscription subscription : stream.subscriptions) {
+                if (subscription.oldestPending == 0) {
+                    subscription.oldestPending = seq;
+                }
+                if (subscription.oldestQueued == 0) {
+                    subscription.oldestQueued = seq;
+                }
+                wake.add(subscription);
+                if (stream.nextSeq - subscription.oldestPending > maxLag) {
+                    slow.add(subscription);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        slow.forEach(Subscription::disconnect);
+        wake.forEach(Subscription::schedule);
+    }
+
+    /**
+     * Opens a stream of a user's events.
+     *
+     * @param userId      the user
+     * @param lastEventId id of the last event the client received, or {@code null} for a new stream
+     * @param sink        receives the events
+     * @return the subscription, to be cancelled when the client disconnects
+     */
+    public Subscription subscribe(String userId, String lastEventId, Sink sink) {
+        Subscription subscription;
+        lock.lock();
+        try {
+            UserStream stream = stream(userId);
+            subscription = new Subscription(stream, sink);
+            subscription.cursor = stream.nextSeq;
+            if (lastEventId != null) {
+                long lastSeq = stream.sequenceOf(lastEventId);
+                if (lastSeq < 0) {
+                    // An id this stream never issued: the events the client missed are gone
+                    subscription.resetPending = true;
+                } else if (lastSeq + 1 < stream.nextSeq) {
+                    subscription.cursor = lastSeq + 1;
+                    subscription.oldestPending = subscription.cursor;
+                    subscription.oldestQueued = subscription.cursor;
+                }
+            }
+            stream.subscriptions.add(subscription);
+            subscriptions.add(subscription);
+        } finally {
+            lock.unlock();
+        }
+        subscription.schedule();
+        return subscription;
+    }
+
+    /**
+     * Returns the number of open streams.
+     *
+     * @return number of subscriptions
+     */
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        subscriptions.forEach(Subscription::disconnect);
+    }
+
+    private void sendHeartbeats() {
+        for (Subscription subscription : subscriptions) {
+            dispatcher.execute(subscription::heartbeat);
+        }
+    }
+
+    /**
+     * Returns the user's stream, creating it if needed and evicting the least recently used
+     * streams without subscribers beyond {@code events.max-users}. Called with the lock held.
+     */
+    private UserStream stream(String userId) {
+        UserStream stream = streams.computeIfAbsent(userId, user -> new UserStream());
+        Iterator<UserStream> eldest = streams.values().iterator();
+        while (streams.size() > maxUsers && eldest.hasNext()) {
+            if (eldest.next().subscriptions.isEmpty()) {
+                eldest.remove();
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Changes the number of threads blocked in timed-out writes, resizing the dispatcher
+     * so that {@code events.dispatch-threads} threads stay available. Called with the lock held.
+     */
+    private void adjustStuckThreads(int delta) {
+        stuckThreads += delta;
+        int size = dispatchThreads + stuckThreads;
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * A call to a {@link Sink}.
+     */
+    private interface SinkCall {
+
+        void run() throws IOException;
+    }
+
+    /**
+     * The recent events of one user and the subscriptions reading them.
+     */
+    private static final class UserStream {
+
+        /**
+         * Random for every stream, so that ids issued by another instance, before a restart
+         * or by an evicted stream are never mistaken for this stream's.
+         */
+        private final String token = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+        /**
+         * The last {@code events.buffer-size} events, oldest first. Guarded by the bus lock.
+         */
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+
+        /**
+         * Sequence number of the next event to be published. Guarded by the bus lock.
+         */
+        private long nextSeq = 1;
+
+        private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Returns the sequence number of an event id issued by this stream, or -1 for any
+         * other id. Called with the lock held.
+         */
+        private long sequenceOf(String eventId) {
+            int dash = eventId.lastIndexOf('-');
+            if (dash < 0 || !eventId.substring(0, dash).equals(token)) {
+                return -1;
+            }
+            try {
+                long seq = Long.parseLong(eventId.substring(dash + 1));
+                return seq > 0 && seq < nextSeq ? seq : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * Returns the sequence number of the oldest buffered event. Called with the lock held.
+         */
+        private long oldestSeq() {
+            return events.isEmpty() ? nextSeq : events.getFirst().seq();
+        }
+    }
+
+    /**
+     * One open stream: a cursor into its user's events plus the sink they are written to.
+     */
+    public final class Subscription {
+
+        private final UserStream stream;
+        private final Sink sink;
+
+        /**
+         * Sequence number of the next event to look at. Guarded by the bus lock.
+         */
+        private long cursor;
+
+        /**
+         * Sequence number of the oldest event that has not been sent yet, including events
+         * copied for a drain that is still sending, or 0 if there is none. Guarded by the bus lock.
+         */
+        private long oldestPending;
+
+        /**
+         * Sequence number of the oldest event at or after the cursor, or 0 if there is none.
+         * Guarded by the bus lock.
+         */
+        private long oldestQueued;
+
+        /**
+         * Set when the client resumes from an event id this stream never issued. Guarded by the bus lock.
+         */
+        private boolean resetPending;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(UserStream stream, Sink sink) {
+            this.stream = stream;
+            this.sink = sink;
+        }
+
+        /**
+         * Removes the subscription, e.g. when the client has disconnected.
+         */
+        public void cancel() {
+            closed.set(true);
+            stream.subscriptions.remove(this);
+            subscriptions.remove(this);
+        }
+
+        private void disconnect() {
+            if (!closed.get()) {
+                cancel();
+                sink.close();
+            }
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends all of the user's events between the cursor and the head of the stream.
+         */
+        private void drain() {
+            try {
+                do {
+                    List<Event> batch = new ArrayList<>();
+                    boolean lost;
+                    lock.lock();
+                    try {
+                        lost = resetPending || (oldestQueued != 0 && oldestQueued < stream.oldestSeq());
+                        Iterator<Event> newest = stream.events.descendingIterator();
+                        while (newest.hasNext()) {
+                            Event event = newest.next();
+                            if (event.seq() < cursor) {
+                                break;
+                            }
+                            batch.add(event);
+                        }
+                        Collections.reverse(batch);
+                        cursor = stream.nextSeq;
+                        oldestQueued = 0;
+                        oldestPending = batch.isEmpty() ? 0 : batch.get(0).seq();
+                        resetPending = false;
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (lost) {
+                        call(sink::reset);
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (closed.get()) {
+                            return;
+                        }
+                        Event event = batch.get(i);
+                        call(() -> sink.send(event));
+                        sent(i + 1 < batch.size() ? batch.get(i + 1).seq() : 0);
+                    }
+                    scheduled.set(false);
+                    // An event published while sending found the drain still scheduled; pick it up
+                } while (hasPending() && !closed.get() && scheduled.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                cancel();
+            }
+        }
+
+        /**
+         * Moves the lag mark past an event that was sent.
+         *
+         * @param nextInBatch id of the next event of the batch, or 0 if the batch is done
+         */
+        private void sent(long nextInBatch) {
+            lock.lock();
+            try {
+                oldestPending = nextInBatch != 0 ? nextInBatch : oldestQueued;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean hasPending() {
+            lock.lock();
+            try {
+                return oldestQueued != 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void heartbeat() {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                call(sink::heartbeat);
+            } catch (IOException | RuntimeException e) {
+                cancel();
+            }
+        }
+
+        /**
+         * Calls the sink on the current dispatcher thread. If the call does not return within
+         * the send timeout, the subscription is disconnected, the thread is interrupted and the
+         * dispatcher gets an extra thread until the call returns.
+         */
+        private void call(SinkCall call) throws IOException {
+            Thread sender = Thread.currentThread();
+            AtomicBoolean done = new AtomicBoolean();
+            ScheduledFuture<?> watchdog = heartbeats.schedule(() -> {
+                // Close before interrupting, so that the sink is closed even if the call then fails
+                disconnect();
+                lock.lock();
+                try {
+                    if (done.compareAndSet(false, true)) {
+                        adjustStuckThreads(1);
+                        sender.interrupt();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }, sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                call.run();
+            } finally {
+                watchdog.cancel(false);
+                lock.lock();
+                try {
+                    if (!done.compareAndSet(false, true)) {
+                        adjustStuckThreads(-1);
+                        Thread.interrupted();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
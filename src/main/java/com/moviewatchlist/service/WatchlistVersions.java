@@ -0,0 +1,58 @@
+package com.moviewatchlist.service;
+
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version counters of the users' watchlists, used as weak ETags.
+ * <p>
+ * {@link MovieService} increments a user's version after every committed change of their
+ * watchlist, so a client that sends the current ETag in {@code If-None-Match} can be answered
+ * with {@code 304 Not Modified} after a primary-key lookup instead of the watchlist query.
+ * The versions are kept in the {@code watchlist_version} table, so all instances sharing the
+ * database hand out the same tags, and a change made through one of them invalidates the
+ * tags of all.
+ */
+@Component
+@Profile("!reactive")
+public class WatchlistVersions {
+
+    private final WatchlistEntryRepository entries;
+
+    /**
+     * Constructs the versions on top of the watchlist repository.
+     *
+     * @param entries repository that stores the versions
+     */
+    public WatchlistVersions(WatchlistEntryRepository entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Records a change of a user's watchlist. Must be called after the change is committed,
+     * otherwise a concurrent read could tag the old content with the new version.
+     *
+     * @param userId the owner of the watchlist
+     * @return the version after the change
+     */
+    public long increment(String userId) {
+        try {
+            return entries.incrementVersion(userId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first change of the user created the row; count this one on top
+            return entries.incrementVersion(userId);
+        }
+    }
+
+    /**
+     * Returns the weak ETag of the current version of a user's watchlist.
+     *
+     * @param userId the owner of the watchlist
+     * @return the ETag, e.g. {@code W/"17"}
+     */
+    public String etag(String userId) {
+        return "W/\"" + entries.findVersion(userId).orElse(0L) + "\"";
+    }
+}
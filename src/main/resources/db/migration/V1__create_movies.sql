@@ -6,5 +6,7 @@ CREATE TABLE movies (
     genre VARCHAR(255),
     watched BOOLEAN DEFAULT FALSE,
     rating INT CHECK (rating BETWEEN 0 AND 5),
-    image_path VARCHAR(500)
+    image_path VARCHAR(500),
+    thumbnail_path VARCHAR(500),
+    medium_path VARCHAR(500)
 );
@@ -0,0 +1,43 @@
+-- Shared catalog: OMDb/TMDB metadata and images, fetched once for all users
+CREATE TABLE movie_catalog (
+    id IDENTITY PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    title_key VARCHAR(255) NOT NULL,
+    release_year VARCHAR(10),
+    director VARCHAR(255),
+    genre VARCHAR(255),
+    image_path VARCHAR(500),
+    thumbnail_path VARCHAR(500),
+    medium_path VARCHAR(500),
+    legacy_id BIGINT
+);
+
+CREATE INDEX idx_movie_catalog_title_key ON movie_catalog (title_key);
+
+-- Per-user state
+CREATE TABLE watchlist_entry (
+    id IDENTITY PRIMARY KEY,
+    user_id VARCHAR(64) NOT NULL,
+    movie_id BIGINT NOT NULL REFERENCES movie_catalog (id),
+    watched BOOLEAN DEFAULT FALSE,
+    rating INT CHECK (rating BETWEEN 0 AND 5),
+    CONSTRAINT uq_watchlist_entry_user_movie UNIQUE (user_id, movie_id)
+);
+
+CREATE INDEX idx_watchlist_entry_user ON watchlist_entry (user_id, id);
+CREATE INDEX idx_watchlist_entry_movie ON watchlist_entry (movie_id);
+
+-- Existing rows become the watchlist of the 'default' user
+INSERT INTO movie_catalog (title, title_key, release_year, director, genre,
+                           image_path, thumbnail_path, medium_path, legacy_id)
+SELECT title, LOWER(TRIM(title)), release_year, director, genre,
+       image_path, thumbnail_path, medium_path, id
+FROM movies;
+
+INSERT INTO watchlist_entry (user_id, movie_id, watched, rating)
+SELECT 'default', c.id, m.watched, m.rating
+FROM movies m
+JOIN movie_catalog c ON c.legacy_id = m.id;
+
+ALTER TABLE movie_catalog DROP COLUMN legacy_id;
+DROP TABLE movies;
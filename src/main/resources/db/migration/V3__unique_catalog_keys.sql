@@ -0,0 +1,34 @@
+-- Title keys are now case- and whitespace-folded: trimmed, lower-cased,
+-- and runs of whitespace collapsed to a single space
+UPDATE movie_catalog SET title_key = LOWER(REGEXP_REPLACE(TRIM(title), '\s+', ' '));
+
+-- Merge catalog rows that share a key into the oldest one. Watchlist entries are
+-- moved onto it; if a user had several of the duplicates, only their oldest entry is kept.
+-- Image directories of the removed rows are deleted as orphans on the next startup.
+CREATE TABLE catalog_canonical AS
+SELECT m.id, (SELECT MIN(k.id) FROM movie_catalog k WHERE k.title_key = m.title_key) AS canonical_id
+FROM movie_catalog m;
+
+DELETE FROM watchlist_entry e
+WHERE EXISTS (
+    SELECT 1
+    FROM watchlist_entry o
+    JOIN catalog_canonical co ON co.id = o.movie_id
+    JOIN catalog_canonical ce ON ce.id = e.movie_id
+    WHERE o.user_id = e.user_id AND co.canonical_id = ce.canonical_id AND o.id < e.id
+);
+
+UPDATE watchlist_entry e
+SET movie_id = (SELECT c.canonical_id FROM catalog_canonical c WHERE c.id = e.movie_id);
+
+DELETE FROM movie_catalog m
+WHERE m.id <> (SELECT c.canonical_id FROM catalog_canonical c WHERE c.id = m.id);
+
+DROP TABLE catalog_canonical;
+
+DROP INDEX idx_movie_catalog_title_key;
+ALTER TABLE movie_catalog ADD CONSTRAINT uq_movie_catalog_title_key UNIQUE (title_key);
+
+-- OMDb's stable movie id; NULL for rows fetched before it was captured
+ALTER TABLE movie_catalog ADD COLUMN imdb_id VARCHAR(16);
+ALTER TABLE movie_catalog ADD CONSTRAINT uq_movie_catalog_imdb_id UNIQUE (imdb_id);
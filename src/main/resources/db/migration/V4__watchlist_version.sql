@@ -0,0 +1,6 @@
+-- Per-user change counter of the watchlist, used as its ETag. Kept in the database
+-- so that every instance tags a watchlist alike.
+CREATE TABLE watchlist_version (
+    user_id VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
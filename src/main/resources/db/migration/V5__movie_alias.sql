@@ -0,0 +1,6 @@
+-- Requested title keys that OMDb resolved to a catalog movie stored under another
+-- (canonical) title, e.g. 'seven' -> 'se7en'
+CREATE TABLE movie_alias (
+    title_key VARCHAR(255) PRIMARY KEY,
+    movie_id BIGINT NOT NULL REFERENCES movie_catalog (id) ON DELETE CASCADE
+);
@@ -0,0 +1,350 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.MoviewatchlistApplication;
+import com.moviewatchlist.controller.MovieController;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how long a freshly started instance takes to reach steady-state latency, with and
+ * without the upstream cache snapshot and startup warm-up.
+ * <p>
+ * Every run launches the application in its own JVM with the {@code prod} profile, so the JIT
+ * and the connection pools start cold, and points it at a local {@link UpstreamStub}. Once
+ * {@code /actuator/health/readiness} reports {@code UP}, it drives an open-loop workload at a
+ * fixed rate. Each request is an add of a random title for a random user, or a similar-movies
+ * lookup once the user has that title. The runs are:
+ * <ul>
+ *     <li>{@code prime} – adds every title and looks up its similar movies, then runs the workload;
+ *     on shutdown it writes the snapshot (not reported)</li>
+ *     <li>{@code cold} – a restart on a copy of that database, without snapshot and warm-up</li>
+ *     <li>{@code warm} – a restart on another copy that loads the snapshot and warms up before reporting readiness</li>
+ * </ul>
+ * Like a redeploy, the restarts keep the catalog and watchlists but lose everything held in memory.
+ * Latencies are grouped into windows by send time. The steady-state p99 is the p99 of the
+ * last third of a run. The time to steady state is measured from process launch to the end
+ * of the last window whose p99 is above the target, which is {@code coldstart.tolerance} times
+ * the lower steady-state p99 of the two runs.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ColdStartBenchmark}. Settings are system properties:
+ * <ul>
+ *     <li>{@code coldstart.rps} – target requests per second (default 10)</li>
+ *     <li>{@code coldstart.seconds} – traffic duration per run (default 60)</li>
+ *     <li>{@code coldstart.titles} – number of distinct titles (default 100)</li>
+ *     <li>{@code coldstart.users} – number of distinct users (default 10)</li>
+ *     <li>{@code coldstart.window-ms} – latency window length (default 5000)</li>
+ *     <li>{@code coldstart.tolerance} – steady-state p99 factor (default 1.5)</li>
+ * </ul>
+ * plus the {@code stub.*} properties described in {@link UpstreamStub.Config}.
+ */
+public class ColdStartBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int rps = Integer.getInteger("coldstart.rps", 10);
+    private final int seconds = Integer.getInteger("coldstart.seconds", 60);
+    private final int titles = Integer.getInteger("coldstart.titles", 100);
+    private final int users = Integer.getInteger("coldstart.users", 10);
+    private final long windowMillis = Long.getLong("coldstart.window-ms", 5000);
+    private final double tolerance = Double.parseDouble(System.getProperty("coldstart.tolerance", "1.5"));
+
+    /**
+     * Runs the cold, prime and warm instances and prints the report.
+     */
+    @Test
+    void timeToSteadyState() throws Exception {
+        File dir = Files.createTempDirectory("coldstart").toFile();
+        String snapshot = new File(dir, "cache/upstream.snapshot").getAbsolutePath();
+        try (UpstreamStub stub = new UpstreamStub(UpstreamStub.Config.fromSystemProperties())) {
+            run("prime", stub, dir, true, "--cache.snapshot.path=" + snapshot);
+            assertTrue(new File(snapshot).isFile(), "the prime run wrote no snapshot");
+            for (String mode : List.of("cold", "warm")) {
+                FileUtils.copyFile(new File(dir, "prime/moviedb.mv.db"), new File(dir, mode + "/moviedb.mv.db"));
+            }
+
+            Result cold = run("cold", stub, dir, false, "--cache.snapshot.path=", "--warmup.enabled=false");
+            Result warm = run("warm", stub, dir, false, "--cache.snapshot.path=" + snapshot);
+
+            // Both runs are measured against the same target: the better of the two steady states
+            double target = tolerance * Math.min(cold.steadyP99, warm.steadyP99);
+            System.out.printf("%nsnapshot: %d bytes, steady-state target p99: %.1f ms%n",
+                    new File(snapshot).length(), target);
+            System.out.printf("%-6s %10s %10s %14s %14s %16s %8s%n",
+                    "mode", "ready ms", "requests", "first p99 ms", "steady p99 ms", "to steady ms", "errors");
+            for (Result result : List.of(cold, warm)) {
+                result.print(target);
+            }
+
+            assertTrue(cold.requests > 0 && warm.requests > 0, "no requests completed");
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private Result run(String mode, UpstreamStub stub, File dir, boolean seed, String... extraArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                MoviewatchlistApplication.class.getName()));
+        command.addAll(List.of(stub.applicationArguments()));
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=prod");
+        command.add("--spring.datasource.url=jdbc:h2:file:" + new File(dir, mode + "/moviedb").getAbsolutePath());
+        command.add("--images.store.root=" + new File(dir, mode + "/images").getAbsolutePath());
+        command.add("--logging.level.root=WARN");
+        command.addAll(List.of(extraArgs));
+
+        File log = new File(dir, mode + ".log");
+        long launchedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            String baseUrl = "http://localhost:" + port;
+            awaitReadiness(process, baseUrl, log);
+            long readyAt = System.nanoTime();
+            if (seed) {
+                seed(baseUrl + "/movies");
+            }
+            Samples samples = drive(baseUrl + "/movies", readyAt);
+            return new Result(mode, TimeUnit.NANOSECONDS.toMillis(readyAt - launchedAt), samples);
+        } finally {
+            // SIGTERM: lets the application shut down gracefully and write its snapshot
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void awaitReadiness(Process process, String baseUrl, File log) throws Exception {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                fail("application exited during startup:\n" + Files.readString(log.toPath()));
+            }
+            try {
+                if (http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException notListeningYet) {
+                // the web server has not started yet
+            }
+            Thread.sleep(20);
+        }
+        fail("application did not become ready:\n" + Files.readString(log.toPath()));
+    }
+
+    /**
+     * Adds every title to the catalog and looks up its similar movies once, so that the
+     * restarted instances find all titles in the database and all TMDB responses in the snapshot.
+     */
+    private void seed(String baseUrl) {
+        List<CompletableFuture<?>> requests = new ArrayList<>();
+        for (int i = 0; i < titles; i++) {
+            HttpRequest add = HttpRequest.newBuilder(URI.create(baseUrl))
+                    .timeout(Duration.ofSeconds(60))
+                    .header(MovieController.USER_HEADER, "seed")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Movie " + i + "\"}"))
+                    .build();
+            requests.add(http.sendAsync(add, HttpResponse.BodyHandlers.ofString())
+                    .thenCompose(response -> {
+                        long id = readId(response.body());
+                        HttpRequest similar = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/similar"))
+                                .timeout(Duration.ofSeconds(60))
+                                .header(MovieController.USER_HEADER, "seed")
+                                .build();
+                        return http.sendAsync(similar, HttpResponse.BodyHandlers.discarding());
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private long readId(String body) {
+        try {
+            return mapper.readTree(body).path("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("unexpected add response: " + body, e);
+        }
+    }
+
+    /**
+     * Issues requests at the target rate for the configured duration and waits for in-flight requests.
+     */
+    private Samples drive(String baseUrl, long start) throws InterruptedException {
+        Samples samples = new Samples();
+        Map<String, Long> entryIds = new ConcurrentHashMap<>();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        AtomicLong tick = new AtomicLong();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            long scheduledAt = start + tick.getAndIncrement() * periodNanos;
+            inFlight.incrementAndGet();
+            send(baseUrl, scheduledAt, start, entryIds, samples)
+                    .whenComplete((ignored, error) -> inFlight.decrementAndGet());
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        scheduler.shutdownNow();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return samples;
+    }
+
+    private CompletableFuture<?> send(String baseUrl, long scheduledAt, long start,
+                                      Map<String, Long> entryIds, Samples samples) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String user = "user-" + random.nextInt(users);
+        String title = "Movie " + random.nextInt(titles);
+        Long entryId = entryIds.get(user + '\n' + title);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header(MovieController.USER_HEADER, user);
+        if (entryId == null) {
+            request.uri(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"" + title + "\"}"));
+        } else {
+            request.uri(URI.create(baseUrl + "/" + entryId + "/similar")).GET();
+        }
+
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    boolean ok = error == null && response.statusCode() < 400;
+                    samples.record(scheduledAt - start, System.nanoTime() - scheduledAt, ok);
+                    if (ok && entryId == null) {
+                        entryIds.put(user + '\n' + title, readId(response.body()));
+                    }
+                });
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Latencies tagged with their send offset from readiness.
+     */
+    private static class Samples {
+
+        private final ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long offsetNanos, long latencyNanos, boolean ok) {
+            samples.add(new long[] {offsetNanos, latencyNanos});
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private class Result {
+
+        private final String mode;
+        private final long readyMillis;
+        private final int requests;
+        private final long errors;
+        private final double firstP99;
+        private final double steadyP99;
+        private final double[] windowP99;
+
+        Result(String mode, long readyMillis, Samples samples) {
+            this.mode = mode;
+            this.readyMillis = readyMillis;
+            this.requests = samples.samples.size();
+            this.errors = samples.errors.get();
+
+            long windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+            int windows = (int) Math.ceil(TimeUnit.SECONDS.toNanos(seconds) / (double) windowNanos);
+            List<List<Long>> byWindow = new ArrayList<>();
+            for (int i = 0; i < windows; i++) {
+                byWindow.add(new ArrayList<>());
+            }
+            List<Long> tail = new ArrayList<>();
+            for (long[] sample : samples.samples) {
+                int window = (int) Math.min(windows - 1, sample[0] / windowNanos);
+                byWindow.get(window).add(sample[1]);
+                if (window >= windows - windows / 3) {
+                    tail.add(sample[1]);
+                }
+            }
+
+            this.firstP99 = p99(byWindow.get(0));
+            this.steadyP99 = p99(tail);
+            this.windowP99 = byWindow.stream().mapToDouble(Result::p99).toArray();
+        }
+
+        /**
+         * Returns the time from launch until the window p99 stays at or below the target,
+         * or empty if the last window is still above it.
+         */
+        String toSteadyMillis(double targetP99) {
+            int lastSlow = -1;
+            for (int i = 0; i < windowP99.length; i++) {
+                if (windowP99[i] > targetP99) {
+                    lastSlow = i;
+                }
+            }
+            return lastSlow == windowP99.length - 1
+                    ? "not reached"
+                    : String.valueOf(readyMillis + (lastSlow + 1) * windowMillis);
+        }
+
+        void print(double targetP99) {
+            System.out.printf("%-6s %10d %10d %14.1f %14.1f %16s %8d%n",
+                    mode, readyMillis, requests, firstP99, steadyP99, toSteadyMillis(targetP99), errors);
+        }
+
+        private static double p99(List<Long> latencies) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(0.99 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
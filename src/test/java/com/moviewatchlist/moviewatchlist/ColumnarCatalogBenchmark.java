@@ -0,0 +1,191 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.MovieFilter;
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import com.moviewatchlist.service.ColumnarCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the {@link ColumnarCatalog} with keeping the same watchlists in memory as
+ * {@link WatchlistEntry} and {@link Movie} entities, the way they come out of JPA.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ColumnarCatalogBenchmark}. Builds
+ * {@value #USERS} watchlists of {@value #ENTRIES_PER_USER} entries over {@value #MOVIES}
+ * catalog movies with a few thousand distinct directors and genre lists, then reports the
+ * retained heap per entry (measured with forced GCs) and the time per read for a list page,
+ * a genre filter and the stats of one watchlist.
+ */
+public class ColumnarCatalogBenchmark {
+
+    private static final int MOVIES = 20_000;
+    private static final int USERS = 1_000;
+    private static final int ENTRIES_PER_USER = 200;
+    private static final int DIRECTORS = 3_000;
+    private static final String[] GENRES = {"Action", "Adventure", "Comedy", "Crime", "Drama", "Fantasy",
+            "Horror", "Mystery", "Romance", "Sci-Fi", "Thriller", "War"};
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    /**
+     * Builds both representations and prints their footprint and read latency.
+     */
+    @Test
+    void compareEntityAndColumnarPaths() throws Exception {
+        long before = usedHeap();
+        EntityPath entityPath = new EntityPath(movies(), MOVIES);
+        long entityBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ColumnarCatalog catalog = new ColumnarCatalog(mock(MovieRepository.class), mock(WatchlistEntryRepository.class));
+        entityPath.byUser.values().forEach(entries -> entries.forEach(entry -> catalog.add(entry, entry.getMovie(), 0)));
+        long columnarBytes = usedHeap() - before;
+
+        int entries = USERS * ENTRIES_PER_USER;
+        MovieFilter drama = MovieFilter.builder().genre("Drama").build();
+        String[] users = entityPath.byUser.keySet().toArray(String[]::new);
+        int[] next = {0};
+
+        System.out.printf("%n%-9s %14s %14s %12s %12s %12s%n",
+                "path", "heap bytes", "bytes/entry", "list ns", "filter ns", "stats ns");
+        System.out.printf("%-9s %14d %14.1f %12.0f %12.0f %12.0f%n", "entity", entityBytes, (double) entityBytes / entries,
+                time(() -> entityPath.find(users[next[0]++ % USERS], null, 0, 20).size()),
+                time(() -> entityPath.find(users[next[0]++ % USERS], "Drama", 0, 20).size()),
+                time(() -> entityPath.genreCounts(users[next[0]++ % USERS]).size()));
+        System.out.printf("%-9s %14d %14.1f %12.0f %12.0f %12.0f%n", "columnar", columnarBytes, (double) columnarBytes / entries,
+                time(() -> catalog.find(users[next[0]++ % USERS], new MovieFilter(), 0, 20).getNumberOfElements()),
+                time(() -> catalog.find(users[next[0]++ % USERS], drama, 0, 20).getNumberOfElements()),
+                time(() -> catalog.stats(users[next[0]++ % USERS]).getTotal()));
+        System.out.printf("columnar footprint estimate: %d bytes%n", catalog.footprintBytes());
+
+        assertEquals(entries, catalog.size());
+        assertTrue(columnarBytes < entityBytes, "columnar catalog should need less heap than entities");
+    }
+
+    /**
+     * Catalog movies with their own string instances, as each JDBC row produces them.
+     */
+    private static List<Movie> movies() {
+        List<Movie> movies = new ArrayList<>(MOVIES);
+        for (int i = 0; i < MOVIES; i++) {
+            String genre = GENRES[i % GENRES.length] + ", " + GENRES[(i / GENRES.length) % GENRES.length];
+            String title = "Movie number " + i;
+            String dir = "images/" + Integer.toHexString(i % 256) + "/" + Integer.toHexString(i / 256 % 256)
+                    + "/Movie_number_" + i + "/image1";
+            movies.add(Movie.builder()
+                    .id((long) i + 1)
+                    .title(title)
+                    .titleKey(title.toLowerCase())
+                    .imdbId("tt" + (1_000_000 + i))
+                    .release_year(String.valueOf(1950 + i % 75))
+                    .director(new String("Director " + i % DIRECTORS))
+                    .genre(new String(genre))
+                    .imagePath(dir + ".jpg")
+                    .thumbnailPath(dir + "_thumb.jpg")
+                    .mediumPath(dir + "_medium.jpg")
+                    .build());
+        }
+        return movies;
+    }
+
+    /**
+     * Times an operation after a warm-up and returns the mean nanoseconds per call.
+     */
+    private static double time(IntSupplier operation) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += operation.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += operation.getAsInt();
+        }
+        double nanos = (double) (System.nanoTime() - start) / ITERATIONS;
+        assertTrue(sink >= 0);
+        return nanos;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The watchlists as entities, grouped by user, with the reads implemented over them.
+     */
+    private static final class EntityPath {
+
+        private final Map<String, List<WatchlistEntry>> byUser = new HashMap<>();
+
+        EntityPath(List<Movie> movies, int movieCount) {
+            long id = 1;
+            for (int user = 0; user < USERS; user++) {
+                List<WatchlistEntry> entries = new ArrayList<>(ENTRIES_PER_USER);
+                for (int i = 0; i < ENTRIES_PER_USER; i++) {
+                    entries.add(WatchlistEntry.builder()
+                            .id(id++)
+                            .userId(new String("user-" + user))
+                            .movie(movies.get((user * 37 + i * 101) % movieCount))
+                            .watched(i % 3 == 0)
+                            .rating(i % 6)
+                            .build());
+                }
+                byUser.put("user-" + user, entries);
+            }
+        }
+
+        List<MovieDTO> find(String userId, String genre, int page, int size) {
+            List<MovieDTO> content = new ArrayList<>(size);
+            int matched = 0;
+            for (WatchlistEntry entry : byUser.get(userId)) {
+                if (genre != null && !hasGenre(entry.getMovie().getGenre(), genre)) {
+                    continue;
+                }
+                if (matched++ >= page * size && content.size() < size) {
+                    Movie movie = entry.getMovie();
+                    content.add(MovieDTO.builder().id(entry.getId()).title(movie.getTitle())
+                            .director(movie.getDirector()).release_year(movie.getRelease_year())
+                            .genre(movie.getGenre()).watched(entry.isWatched()).rating(entry.getRating())
+                            .imagePath(movie.getImagePath()).thumbnailPath(movie.getThumbnailPath())
+                            .mediumPath(movie.getMediumPath()).build());
+                }
+            }
+            return content;
+        }
+
+        Map<String, Integer> genreCounts(String userId) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (WatchlistEntry entry : byUser.get(userId)) {
+                for (String genre : entry.getMovie().getGenre().split("\\s*,\\s*")) {
+                    counts.merge(genre, 1, Integer::sum);
+                }
+            }
+            return counts;
+        }
+
+        private static boolean hasGenre(String genres, String genre) {
+            for (String candidate : genres.split("\\s*,\\s*")) {
+                if (candidate.equalsIgnoreCase(genre)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.MovieFilter;
+import com.moviewatchlist.dto.WatchlistStats;
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import com.moviewatchlist.service.ColumnarCatalog;
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for {@link ColumnarCatalog}.
+ * Verifies loading from the repositories, the round trip of all columns, filtering,
+ * paging, statistics, applying changes including compaction, and picking up changes
+ * made by other instances.
+ */
+public class ColumnarCatalogTest {
+
+    private static final String USER = "alice";
+
+    private MovieRepository repo;
+    private WatchlistEntryRepository entries;
+    private ColumnarCatalog catalog;
+
+    private final Movie inception = Movie.builder().id(1L).title("Inception").director("Christopher Nolan")
+            .release_year("2010").genre("Action, Sci-Fi").imagePath("images/1/image1.jpg")
+            .thumbnailPath("images/1/image1_thumb.jpg").mediumPath("images/1/image1_medium.jpg").build();
+    private final Movie amelie = Movie.builder().id(2L).title("Amélie").director("Jean-Pierre Jeunet")
+            .release_year("2001").genre("Comedy, Romance").build();
+    private final Movie sherlock = Movie.builder().id(3L).title("Sherlock").release_year("2010–2017")
+            .genre("Crime, Drama, Mystery").build();
+
+    /**
+     * Creates an empty catalog over mocked repositories.
+     */
+    @BeforeEach
+    void setup() {
+        repo = mock(MovieRepository.class);
+        entries = mock(WatchlistEntryRepository.class);
+        catalog = new ColumnarCatalog(repo, entries);
+    }
+
+    /**
+     * Verifies that the catalog is read batch by batch and every column is returned unchanged.
+     */
+    @Test
+    void load_shouldReadAllBatches() {
+        when(repo.findFirst1000ByIdGreaterThanOrderById(0L)).thenReturn(List.of(inception, amelie));
+        when(repo.findFirst1000ByIdGreaterThanOrderById(2L)).thenReturn(List.of(sherlock));
+        when(repo.findFirst1000ByIdGreaterThanOrderById(3L)).thenReturn(List.of());
+        when(entries.findFirst1000ByIdGreaterThanOrderById(0L)).thenReturn(List.of(
+                entry(10L, USER, inception, true, 5), entry(11L, "bob", amelie, false, 0)));
+        when(entries.findFirst1000ByIdGreaterThanOrderById(11L)).thenReturn(List.of(
+                entry(12L, USER, sherlock, false, 3)));
+        when(entries.findFirst1000ByIdGreaterThanOrderById(12L)).thenReturn(List.of());
+
+        catalog.load();
+
+        List<MovieDTO> movies = catalog.find(USER, new MovieFilter(), 0, 10).getContent();
+        assertEquals(3, catalog.size());
+        assertEquals(2, movies.size());
+        assertEquals(MovieDTO.builder().id(10L).title("Inception").director("Christopher Nolan")
+                .release_year("2010").genre("Action, Sci-Fi").watched(true).rating(5)
+                .imagePath("images/1/image1.jpg").thumbnailPath("images/1/image1_thumb.jpg")
+                .mediumPath("images/1/image1_medium.jpg").build(), movies.get(0));
+        assertEquals("2010–2017", movies.get(1).getRelease_year());
+        assertNull(movies.get(1).getDirector());
+        assertNull(movies.get(1).getImagePath());
+        assertEquals("Amélie", catalog.find("bob", new MovieFilter(), 0, 10).getContent().get(0).getTitle());
+        verify(repo, never()).findById(anyLong());
+    }
+
+    /**
+     * Verifies filtering by one of several genres, watched flag and minimum rating, with paging.
+     */
+    @Test
+    void find_shouldFilterAndPage() {
+        catalog.add(entry(1L, USER, inception, true, 5), inception, 1);
+        catalog.add(entry(2L, USER, amelie, false, 2), amelie, 2);
+        catalog.add(entry(3L, USER, sherlock, true, 4), sherlock, 3);
+
+        assertEquals(List.of(3L), ids(catalog.find(USER, MovieFilter.builder().genre(" drama").build(), 0, 10)));
+        assertEquals(List.of(1L, 3L), ids(catalog.find(USER, MovieFilter.builder().watched(true).build(), 0, 10)));
+        assertEquals(List.of(1L), ids(catalog.find(USER, MovieFilter.builder().minRating(5).build(), 0, 10)));
+        assertEquals(List.of(1L), ids(catalog.find(USER,
+                MovieFilter.builder().director("christopher nolan").build(), 0, 10)));
+
+        Page<MovieDTO> second = catalog.find(USER, new MovieFilter(), 1, 2);
+        assertEquals(List.of(3L), ids(second));
+        assertEquals(3, second.getTotalElements());
+        assertEquals(0, catalog.find("bob", new MovieFilter(), 0, 10).getTotalElements());
+    }
+
+    /**
+     * Verifies the counts, the average rating and the per-genre counts of a watchlist.
+     */
+    @Test
+    void stats_shouldSummarizeWatchlist() {
+        Movie tenet = Movie.builder().id(4L).title("Tenet").genre("Action, Sci-Fi").build();
+        catalog.add(entry(1L, USER, inception, true, 5), inception, 1);
+        catalog.add(entry(2L, USER, tenet, true, 0), tenet, 2);
+        catalog.add(entry(3L, USER, sherlock, false, 4), sherlock, 3);
+
+        WatchlistStats stats = catalog.stats(USER);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(2, stats.getWatched());
+        assertEquals(2, stats.getRated());
+        assertEquals(4.5, stats.getAverageRating());
+        assertEquals(Map.of("Action", 2, "Sci-Fi", 2, "Crime", 1, "Drama", 1, "Mystery", 1), stats.getGenres());
+        assertEquals("Action", stats.getGenres().keySet().iterator().next());
+    }
+
+    /**
+     * Verifies that updates and removals are applied, also after the rows have been compacted.
+     */
+    @Test
+    void updateAndRemove_shouldApplyChangesAcrossCompaction() {
+        for (long id = 1; id <= 3000; id++) {
+            catalog.add(entry(id, id % 2 == 0 ? USER : "bob", inception, false, 0), inception, 0);
+        }
+        for (long id = 1; id <= 2000; id++) {
+            catalog.remove(id % 2 == 0 ? USER : "bob", id, 0);
+        }
+        catalog.update(entry(2002L, USER, inception, true, 4), 0);
+
+        assertEquals(1000, catalog.size());
+        Page<MovieDTO> page = catalog.find(USER, new MovieFilter(), 0, 2);
+        assertEquals(500, page.getTotalElements());
+        assertEquals(List.of(2002L, 2004L), ids(page));
+        assertTrue(page.getContent().get(0).isWatched());
+        assertEquals(4, page.getContent().get(0).getRating());
+        assertEquals(500, catalog.find("bob", new MovieFilter(), 0, 10).getTotalElements());
+    }
+
+    /**
+     * Verifies that a watchlist whose version moved is read again, with removed, updated and
+     * new entries, and that an unchanged version is served without reading it.
+     */
+    @Test
+    void find_afterChangeElsewhere_shouldRereadWatchlist() {
+        catalog.add(entry(1L, USER, inception, false, 0), inception, 1);
+        catalog.add(entry(2L, USER, amelie, false, 0), amelie, 2);
+        when(entries.findVersion(USER)).thenReturn(Optional.of(3L));
+        when(entries.findByUserIdOrderById(USER)).thenReturn(List.of(
+                entry(2L, USER, amelie, true, 4), entry(5L, USER, sherlock, false, 0)));
+
+        Page<MovieDTO> page = catalog.find(USER, new MovieFilter(), 0, 10);
+        WatchlistStats stats = catalog.stats(USER);
+
+        assertEquals(List.of(2L, 5L), ids(page));
+        assertTrue(page.getContent().get(0).isWatched());
+        assertEquals("Sherlock", page.getContent().get(1).getTitle());
+        assertEquals(2, stats.getTotal());
+        assertEquals(2, catalog.size());
+        verify(entries, times(1)).findByUserIdOrderById(USER);
+    }
+
+    /**
+     * Verifies that local changes advance the version, so that reading them back needs no
+     * reload, unless another change was counted in between.
+     */
+    @Test
+    void find_afterLocalChanges_shouldNotRereadWatchlist() {
+        catalog.add(entry(1L, USER, inception, false, 0), inception, 1);
+        catalog.update(entry(1L, USER, inception, true, 0), 2);
+        when(entries.findVersion(USER)).thenReturn(Optional.of(2L));
+
+        assertEquals(1, catalog.stats(USER).getWatched());
+        verify(entries, never()).findByUserIdOrderById(anyString());
+
+        // Version 3 was counted by another instance
+        catalog.add(entry(2L, USER, amelie, false, 0), amelie, 4);
+        when(entries.findVersion(USER)).thenReturn(Optional.of(4L));
+        when(entries.findByUserIdOrderById(USER)).thenReturn(List.of(
+                entry(1L, USER, inception, true, 0), entry(2L, USER, amelie, false, 0),
+                entry(3L, USER, sherlock, false, 0)));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(catalog.find(USER, new MovieFilter(), 0, 10)));
+        verify(entries, times(1)).findByUserIdOrderById(USER);
+    }
+
+    /**
+     * Verifies that versions read at startup count as current, so that nothing is read again.
+     */
+    @Test
+    void load_shouldRecordVersions() {
+        when(repo.findFirst1000ByIdGreaterThanOrderById(0L)).thenReturn(List.of(inception));
+        when(repo.findFirst1000ByIdGreaterThanOrderById(1L)).thenReturn(List.of());
+        when(entries.findAllVersions()).thenReturn(List.of(version(USER, 4L), version("bob", 2L)));
+        when(entries.findFirst1000ByIdGreaterThanOrderById(0L)).thenReturn(List.of(entry(1L, USER, inception, true, 5)));
+        when(entries.findFirst1000ByIdGreaterThanOrderById(1L)).thenReturn(List.of());
+        when(entries.findVersion(USER)).thenReturn(Optional.of(4L));
+        when(entries.findVersion("bob")).thenReturn(Optional.of(2L));
+
+        catalog.load();
+
+        assertEquals(List.of(1L), ids(catalog.find(USER, new MovieFilter(), 0, 10)));
+        assertEquals(0, catalog.stats("bob").getTotal());
+        verify(entries, never()).findByUserIdOrderById(anyString());
+    }
+
+    private static WatchlistEntryRepository.UserVersion version(String userId, long version) {
+        return new WatchlistEntryRepository.UserVersion() {
+            @Override
+            public String getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private static WatchlistEntry entry(Long id, String userId, Movie movie, boolean watched, int rating) {
+        return WatchlistEntry.builder().id(id).userId(userId).movie(movie).watched(watched).rating(rating).build();
+    }
+
+    private static List<Long> ids(Page<MovieDTO> page) {
+        return page.getContent().stream().map(MovieDTO::getId).toList();
+    }
+}
@@ -0,0 +1,186 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.MoviewatchlistApplication;
+import com.moviewatchlist.controller.MovieController;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the application's concurrency modes under a burst of concurrent adds:
+ * <ul>
+ *     <li>{@code platform} – Tomcat and upstream calls on platform threads (default)</li>
+ *     <li>{@code virtual} – the same stack on virtual threads ({@code spring.threads.virtual.enabled=true})</li>
+ *     <li>{@code reactive} – WebFlux, WebClient and R2DBC ({@code reactive} profile)</li>
+ * </ul>
+ * For each mode a fresh {@link UpstreamStub} and application are started, then
+ * {@code burst.concurrency} {@code POST /movies} requests with distinct titles are sent
+ * at once. OMDb is slow (1 s median) so that every add holds its request thread while it waits.
+ * The report lists completed requests, errors, wall time, the peak number of adds that were
+ * waiting on OMDb at the same time, and the peak heap usage and platform thread count of the JVM
+ * (virtual threads are not included in the thread count). The stub runs in the same JVM and
+ * serves every request on its own thread before Java 21, so its threads are part of the count.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ConcurrentAddBenchmark}. The virtual-thread mode
+ * needs Java 21+ and is skipped on older runtimes. Settings are system properties:
+ * <ul>
+ *     <li>{@code burst.concurrency} – concurrent add requests (default 10000)</li>
+ *     <li>{@code burst.timeout-seconds} – per-request client timeout (default 300)</li>
+ * </ul>
+ * plus the {@code stub.*} properties described in {@link UpstreamStub.Config}. Each request
+ * holds a socket on both the client and the server side, so the open-file limit
+ * ({@code ulimit -n}) must be well above twice the concurrency.
+ */
+public class ConcurrentAddBenchmark {
+
+    private enum Mode { PLATFORM, VIRTUAL, REACTIVE }
+
+    private final int concurrency = Integer.getInteger("burst.concurrency", 10_000);
+    private final int timeoutSeconds = Integer.getInteger("burst.timeout-seconds", 300);
+
+    /**
+     * Runs the burst in every mode and prints one report row per mode.
+     */
+    @Test
+    void compareConcurrencyModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            if (mode == Mode.VIRTUAL && Runtime.version().feature() < 21) {
+                System.out.printf("%nSkipping virtual-thread mode: requires Java 21+, running on %s%n",
+                        Runtime.version());
+                continue;
+            }
+            results.add(run(mode));
+        }
+
+        System.out.printf("%n%-9s %10s %8s %10s %14s %12s %12s%n",
+                "mode", "completed", "errors", "wall s", "peak in-flight", "peak heap MB", "peak threads");
+        for (Result result : results) {
+            System.out.printf("%-9s %10d %8d %10.1f %14d %12d %12d%n",
+                    result.mode, result.completed, result.errors, result.wallSeconds,
+                    result.peakInFlight, result.peakHeapBytes / (1024 * 1024), result.peakThreads);
+        }
+
+        assertTrue(results.get(0).completed > 0, "no requests completed");
+    }
+
+    private Result run(Mode mode) throws Exception {
+        File dir = Files.createTempDirectory("burst").toFile();
+        UpstreamStub.Config defaults = UpstreamStub.Config.fromSystemProperties();
+        UpstreamStub.Config config = new UpstreamStub.Config(
+                UpstreamStub.Latency.parse(System.getProperty("stub.latency.omdb", "1000/3000")),
+                defaults.tmdbLatency(), defaults.cdnLatency(),
+                defaults.errorRate(), defaults.throttleRate(), defaults.imagesPerResponse(),
+                Integer.getInteger("stub.poster-width", 120));
+
+        System.gc();
+        try (UpstreamStub stub = new UpstreamStub(config);
+             ConfigurableApplicationContext app = startApplication(stub, dir, mode);
+             Sampler sampler = new Sampler()) {
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/movies");
+            HttpClient http = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(timeoutSeconds))
+                    .build();
+
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            List<CompletableFuture<?>> requests = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(timeoutSeconds))
+                        .header(MovieController.USER_HEADER, "user-" + i % 100)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Burst " + i + "\"}"))
+                        .build();
+                requests.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error != null || response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        }));
+            }
+            CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                    .exceptionally(error -> null)
+                    .join();
+            double wallSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            return new Result(mode.name().toLowerCase(), concurrency - errors.get(), errors.get(),
+                    wallSeconds, stub.peakInFlight(UpstreamStub.OMDB),
+                    sampler.peakHeapBytes.get(), sampler.peakThreads.get());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(UpstreamStub stub, File dir, Mode mode) {
+        String db = "burst-" + mode.name().toLowerCase();
+        List<String> args = new ArrayList<>(List.of(stub.applicationArguments()));
+        args.add("--server.port=0");
+        if (mode == Mode.REACTIVE) {
+            args.add("--spring.profiles.active=reactive");
+            args.add("--spring.r2dbc.url=r2dbc:h2:mem:///" + db + ";DB_CLOSE_DELAY=-1");
+            args.add("--spring.flyway.url=jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1");
+        } else {
+            args.add("--spring.threads.virtual.enabled=" + (mode == Mode.VIRTUAL));
+            args.add("--server.tomcat.max-connections=" + (concurrency + 100));
+            args.add("--server.tomcat.accept-count=" + concurrency);
+            args.add("--spring.datasource.url=jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1");
+        }
+        args.add("--images.store.root=" + new File(dir, "images").getAbsolutePath());
+        args.add("--logging.level.root=WARN");
+        args.add("--cache.snapshot.path=");
+        return new SpringApplicationBuilder(MoviewatchlistApplication.class).run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Samples heap usage and the live platform thread count every 100 ms while open.
+     */
+    private static class Sampler implements AutoCloseable {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+        private final AtomicLong peakThreads = new AtomicLong();
+
+        Sampler() {
+            scheduler.scheduleAtFixedRate(() -> {
+                peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            }, 0, 100, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void close() {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private record Result(String mode, long completed, long errors, double wallSeconds,
+                          int peakInFlight, long peakHeapBytes, long peakThreads) {
+    }
+}
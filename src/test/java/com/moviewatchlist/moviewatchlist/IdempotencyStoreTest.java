@@ -0,0 +1,116 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.service.IdempotencyStore;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link IdempotencyStore}.
+ * Verifies replay of the original result, key reuse detection, retry after failure and expiry.
+ */
+public class IdempotencyStoreTest {
+
+    private MutableClock clock;
+    private IdempotencyStore store;
+    private AtomicInteger calls;
+
+    /**
+     * Creates a store holding at most three keys for one hour.
+     */
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock();
+        store = new IdempotencyStore(3, Duration.ofHours(1), clock);
+        calls = new AtomicInteger();
+    }
+
+    /**
+     * Verifies that a retry with the same key returns the first result without running the action again.
+     */
+    @Test
+    void execute_shouldReturnOriginalResultForRetry() {
+        assertEquals(1, store.execute("alice", "k1", "Inception", calls::incrementAndGet));
+        assertEquals(1, store.execute("alice", "k1", "Inception", calls::incrementAndGet));
+
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Verifies that keys are scoped to the user.
+     */
+    @Test
+    void execute_shouldScopeKeysToUser() {
+        store.execute("alice", "k1", "Inception", calls::incrementAndGet);
+        store.execute("bob", "k1", "Inception", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Verifies that reusing a key for a different request is rejected with 422.
+     */
+    @Test
+    void execute_shouldRejectKeyReusedForDifferentRequest() {
+        store.execute("alice", "k1", "Inception", calls::incrementAndGet);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.execute("alice", "k1", "Tenet", calls::incrementAndGet));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Verifies that a failed request is forgotten so that its retry runs again.
+     */
+    @Test
+    void execute_shouldForgetFailures() {
+        assertThrows(IllegalStateException.class, () -> store.execute("alice", "k1", "Inception", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("OMDb unavailable");
+        }));
+
+        assertEquals(2, store.execute("alice", "k1", "Inception", calls::incrementAndGet));
+        assertEquals(1, store.size());
+    }
+
+    /**
+     * Verifies that a retry arriving while the first request is running shares its result.
+     */
+    @Test
+    void executeAsync_shouldShareRunningRequest() {
+        CompletableFuture<String> running = new CompletableFuture<>();
+        CompletableFuture<String> first = store.executeAsync("alice", "k1", "Inception", () -> running);
+        CompletableFuture<String> retry = store.executeAsync("alice", "k1", "Inception",
+                () -> CompletableFuture.completedFuture("again"));
+
+        running.complete("added");
+
+        assertEquals("added", first.join());
+        assertEquals("added", retry.join());
+    }
+
+    /**
+     * Verifies that keys expire after the TTL and that the oldest key is dropped beyond the limit.
+     */
+    @Test
+    void execute_shouldEvictExpiredAndOldestKeys() {
+        store.execute("alice", "k1", "A", calls::incrementAndGet);
+        clock.advance(Duration.ofMinutes(90));
+        store.execute("alice", "k2", "B", calls::incrementAndGet);
+        assertEquals(1, store.size());
+
+        store.execute("alice", "k3", "C", calls::incrementAndGet);
+        store.execute("alice", "k4", "D", calls::incrementAndGet);
+        store.execute("alice", "k5", "E", calls::incrementAndGet);
+        assertEquals(3, store.size());
+
+        assertEquals(6, store.execute("alice", "k2", "B", calls::incrementAndGet));
+    }
+}
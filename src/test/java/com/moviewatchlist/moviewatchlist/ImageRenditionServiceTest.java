@@ -0,0 +1,83 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.service.ImageRenditionService;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ImageRenditionService}.
+ * Verifies that thumbnail and medium renditions are written next to the original image.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ImageRenditionServiceTest {
+
+    private ImageRenditionService service;
+    private ExecutorService executor;
+    private File dir;
+
+    /**
+     * Sets up the service with a small pool and explicit rendition widths.
+     */
+    @BeforeEach
+    void setup() throws Exception {
+        executor = Executors.newFixedThreadPool(2);
+        service = new ImageRenditionService(executor);
+        TestUtils.setField(service, "thumbWidth", 92);
+        TestUtils.setField(service, "mediumWidth", 342);
+        TestUtils.setField(service, "jpegQuality", 0.8f);
+
+        dir = Files.createTempDirectory("renditions").toFile();
+    }
+
+    /**
+     * Verifies that both renditions are created with the configured width and the original aspect ratio.
+     */
+    @Test
+    void createRenditions_shouldWriteScaledImages() throws Exception {
+        File original = new File(dir, "image1.jpg");
+        ImageIO.write(new BufferedImage(780, 1170, BufferedImage.TYPE_INT_RGB), "jpg", original);
+
+        Map<String, String> renditions = service.createRenditions(original.getAbsolutePath());
+
+        BufferedImage thumb = ImageIO.read(new File(renditions.get(ImageRenditionService.THUMB)));
+        BufferedImage medium = ImageIO.read(new File(renditions.get(ImageRenditionService.MEDIUM)));
+
+        assertEquals(new File(dir, "image1_thumb.jpg").getAbsolutePath(), renditions.get(ImageRenditionService.THUMB));
+        assertEquals(92, thumb.getWidth());
+        assertEquals(138, thumb.getHeight());
+        assertEquals(342, medium.getWidth());
+        assertEquals(513, medium.getHeight());
+    }
+
+    /**
+     * Verifies that files which are not decodable images produce no renditions.
+     */
+    @Test
+    void createRenditions_shouldSkipUndecodableFiles() throws Exception {
+        File original = new File(dir, "broken.jpg");
+        FileUtils.writeByteArrayToFile(original, new byte[] { 1, 2, 3 });
+
+        Map<String, String> renditions = service.createRenditions(original.getAbsolutePath());
+
+        assertTrue(renditions.isEmpty());
+    }
+
+    /**
+     * Deletes the temporary directory and stops the pool after each test.
+     */
+    @AfterEach
+    void cleanup() throws Exception {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(dir);
+    }
+}
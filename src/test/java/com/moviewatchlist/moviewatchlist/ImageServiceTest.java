@@ -1,26 +1,42 @@
 package com.moviewatchlist.moviewatchlist;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.client.RateLimiter;
+import com.moviewatchlist.repository.MovieRepository;
 import com.moviewatchlist.service.ImageService;
+import com.moviewatchlist.service.ImageStore;
+import com.moviewatchlist.service.UpstreamCache;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 
 /**
  * Unit test for {@link ImageService}.
- * Verifies downloading and saving images from the TMDB API using a mocked RestTemplate.
+ * Verifies downloading and saving images from the TMDB API using a mocked RestTemplate,
+ * and that the TMDB calls are rate limited.
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class ImageServiceTest {
 
     private ImageService service;
     private RestTemplate restTemplate;
+    private ImageStore imageStore;
 
     private final String mockSearchJson = """
         {
@@ -51,17 +67,18 @@ public class ImageServiceTest {
     @BeforeEach
     void setup() {
         restTemplate = Mockito.mock(RestTemplate.class);
-        service = new ImageService(restTemplate);
+        imageStore = new ImageStore("images", Long.MAX_VALUE, Mockito.mock(MovieRepository.class));
+        service = newService(new RateLimiter(0, 1));
 
         // Search TMDB
-        Mockito.when(restTemplate.getForObject(
-                contains("search/movie"), eq(String.class)))
-                .thenReturn(mockSearchJson);
+        Mockito.when(restTemplate.execute(
+                contains("search/movie"), eq(HttpMethod.GET), isNull(), ArgumentMatchers.<ResponseExtractor<Long>>any()))
+                .thenAnswer(respondWith(mockSearchJson));
 
         // Image metadata
-        Mockito.when(restTemplate.getForObject(
-                contains("images"), eq(String.class)))
-                .thenReturn(mockImagesJson);
+        Mockito.when(restTemplate.execute(
+                contains("images"), eq(HttpMethod.GET), isNull(), ArgumentMatchers.<ResponseExtractor<List<String>>>any()))
+                .thenAnswer(respondWith(mockImagesJson));
 
         // Fake image binary
         Mockito.when(restTemplate.getForObject(
@@ -77,7 +94,7 @@ public class ImageServiceTest {
         String title = "Inception";
         String path = service.fetchImage(title);
 
-        File outputDir = new File("images/Inception");
+        File outputDir = imageStore.directoryFor(title).toFile();
         assertTrue(outputDir.exists(), "Output directory should exist");
 
         File img1 = new File(outputDir, "image1.jpg");
@@ -97,11 +114,81 @@ public class ImageServiceTest {
         assertEquals(img1.getAbsolutePath(), path);
     }
 
+    /**
+     * Verifies that posters are preferred even when the response lists backdrops first,
+     * and that backdrops fill up the remaining slots.
+     */
+    @Test
+    void fetchImage_shouldPreferPostersOverBackdrops() throws Exception {
+        String imagesJson = """
+            {
+              "backdrops": [
+                { "file_path": "/backdrop1.jpg" },
+                { "file_path": "/backdrop2.jpg" },
+                { "file_path": "/backdrop3.jpg" }
+              ],
+              "id": 123,
+              "posters": [
+                { "file_path": "/poster1.jpg" }
+              ]
+            }
+            """;
+        Mockito.when(restTemplate.execute(
+                contains("images"), eq(HttpMethod.GET), isNull(), ArgumentMatchers.<ResponseExtractor<List<String>>>any()))
+                .thenAnswer(respondWith(imagesJson));
+
+        service.fetchImage("Inception");
+
+        Mockito.verify(restTemplate).getForObject(endsWith("/poster1.jpg"), eq(byte[].class));
+        Mockito.verify(restTemplate).getForObject(endsWith("/backdrop1.jpg"), eq(byte[].class));
+        Mockito.verify(restTemplate).getForObject(endsWith("/backdrop2.jpg"), eq(byte[].class));
+        Mockito.verify(restTemplate, Mockito.never()).getForObject(endsWith("/backdrop3.jpg"), eq(byte[].class));
+    }
+
+    /**
+     * Verifies that a lookup fails without calling TMDB when the shared rate limit is used up.
+     */
+    @Test
+    void findImagePaths_shouldFailWhenRateLimitIsUsedUp() {
+        RateLimiter rateLimiter = new RateLimiter(1, 2);
+        assertTrue(rateLimiter.tryAcquire(2, Duration.ZERO));
+        ImageService limited = newService(rateLimiter);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> limited.findImagePaths("Inception"));
+        assertEquals("TMDB rate limit exceeded", e.getMessage());
+        assertTrue(limited.tryFindImagePaths("Inception", Duration.ZERO).isEmpty());
+        Mockito.verify(restTemplate, Mockito.never())
+                .execute(anyString(), any(), any(), ArgumentMatchers.<ResponseExtractor<Long>>any());
+    }
+
+    private ImageService newService(RateLimiter rateLimiter) {
+        ImageService imageService = new ImageService(restTemplate, new ObjectMapper(), imageStore,
+                new UpstreamCache(100, "", Duration.ofHours(1)), rateLimiter, Duration.ZERO);
+        TestUtils.setField(imageService, "tmdbBaseUrl", "https://api.themoviedb.org/3");
+        TestUtils.setField(imageService, "imageBaseUrl", "https://image.tmdb.org/t/p/w780");
+        return imageService;
+    }
+
+    /**
+     * Builds an answer that feeds the given JSON body to the {@link ResponseExtractor}
+     * passed to {@link RestTemplate#execute}.
+     */
+    private static Answer<Object> respondWith(String json) {
+        return invocation -> {
+            ResponseExtractor<?> extractor = invocation.getArgument(3);
+            ClientHttpResponse response = Mockito.mock(ClientHttpResponse.class);
+            Mockito.when(response.getBody())
+                    .thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            return extractor.extractData(response);
+        };
+    }
+
     /**
      * Deletes test files after all tests.
      */
     @AfterAll
     void cleanup() throws Exception {
-        FileUtils.deleteDirectory(new File("images/Inception"));
+        FileUtils.deleteDirectory(imageStore.directoryFor("Inception").toFile());
     }
 }
@@ -0,0 +1,125 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.service.ImageStore;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ImageStore}.
+ * Verifies sharding, deletion, LRU eviction under a disk budget and startup reconciliation.
+ */
+public class ImageStoreTest {
+
+    private Path root;
+    private MovieRepository repository;
+    private ImageStore store;
+
+    /**
+     * Creates a store with a 250-byte budget in a temporary directory.
+     */
+    @BeforeEach
+    void setup() throws Exception {
+        root = Files.createTempDirectory("image-store");
+        repository = Mockito.mock(MovieRepository.class);
+        store = new ImageStore(root.toString(), 250, repository);
+    }
+
+    /**
+     * Verifies that movie directories are named by hash and placed in two-level hex shards below the root.
+     */
+    @Test
+    void directoryFor_shouldShardByHash() {
+        Path dir = store.directoryFor("The Matrix");
+
+        assertTrue(dir.getFileName().toString().matches("[0-9a-f]{32}"));
+        assertTrue(dir.getFileName().toString().startsWith(
+                dir.getParent().getParent().getFileName() + "" + dir.getParent().getFileName()));
+        assertTrue(dir.getParent().getFileName().toString().matches("[0-9a-f]{2}"));
+        assertTrue(dir.getParent().getParent().getFileName().toString().matches("[0-9a-f]{2}"));
+        assertEquals(root.toAbsolutePath(), dir.getParent().getParent().getParent());
+    }
+
+    /**
+     * Verifies that titles differing only in punctuation or written in other scripts get
+     * their own directories.
+     */
+    @Test
+    void directoryFor_shouldNotCollide() {
+        assertNotEquals(store.directoryFor("Alien?"), store.directoryFor("Alien!"));
+        assertNotEquals(store.directoryFor("七人の侍"), store.directoryFor("羅生門"));
+    }
+
+    /**
+     * Verifies that the least recently accessed directory is evicted once the budget is exceeded.
+     */
+    @Test
+    void register_shouldEvictLeastRecentlyAccessed() throws Exception {
+        String first = writeImage("First", 100);
+        String second = writeImage("Second", 100);
+        store.register(first);
+        store.register(second);
+
+        store.touch(first);
+
+        String third = writeImage("Third", 100);
+        store.register(third);
+
+        assertTrue(new File(first).exists(), "recently touched directory should be kept");
+        assertFalse(new File(second).exists(), "least recently accessed directory should be evicted");
+        assertTrue(new File(third).exists(), "newly registered directory should be kept");
+        assertEquals(200, store.usedBytes());
+    }
+
+    /**
+     * Verifies that deleting an image removes its whole movie directory.
+     */
+    @Test
+    void delete_shouldRemoveDirectory() throws Exception {
+        String image = writeImage("Inception", 100);
+        store.register(image);
+
+        store.delete(image);
+
+        assertFalse(new File(image).getParentFile().exists());
+        assertEquals(0, store.usedBytes());
+    }
+
+    /**
+     * Verifies that directories not referenced by any movie are removed on startup.
+     */
+    @Test
+    void reconcile_shouldDeleteOrphans() throws Exception {
+        String kept = writeImage("Kept", 100);
+        String orphan = writeImage("Orphan", 100);
+        Mockito.when(repository.findAllImagePaths()).thenReturn(List.of(kept));
+
+        store.reconcile();
+
+        assertTrue(new File(kept).exists());
+        assertFalse(new File(orphan).getParentFile().exists());
+        assertEquals(100, store.usedBytes());
+    }
+
+    /**
+     * Deletes the temporary root after each test.
+     */
+    @AfterEach
+    void cleanup() throws Exception {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    private String writeImage(String title, int size) throws Exception {
+        File image = new File(store.directoryFor(title).toFile(), "image1.jpg");
+        FileUtils.writeByteArrayToFile(image, new byte[size]);
+        return image.getAbsolutePath();
+    }
+}
@@ -0,0 +1,268 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.MoviewatchlistApplication;
+import com.moviewatchlist.controller.MovieController;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load-test harness for the full REST API against a local {@link UpstreamStub}.
+ * <p>
+ * Starts the stub and the real application (Tomcat, thread pools, H2) with the upstream
+ * base URLs pointed at the stub, then drives a mixed workload of add, list, rate and
+ * similar requests at a fixed arrival rate. Requests are issued open-loop, and latency is
+ * measured from the scheduled send time so that a slow server cannot hide queueing delay.
+ * The report lists throughput, errors and latency percentiles per operation.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LoadTestBenchmark}. Settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.rps} – target requests per second (default 50)</li>
+ *     <li>{@code loadtest.seconds} – measured duration (default 30)</li>
+ *     <li>{@code loadtest.warmup-seconds} – unmeasured warm-up (default 5)</li>
+ *     <li>{@code loadtest.users} – number of distinct users (default 20)</li>
+ *     <li>{@code loadtest.titles} – number of distinct titles added (default 300)</li>
+ *     <li>{@code loadtest.mix} – add/list/rate/similar weights (default {@code 20/50/20/10})</li>
+ * </ul>
+ * plus the {@code stub.*} properties described in {@link UpstreamStub.Config}.
+ */
+public class LoadTestBenchmark {
+
+    private enum Operation { ADD, LIST, RATE, SIMILAR }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int rps = Integer.getInteger("loadtest.rps", 50);
+    private final int seconds = Integer.getInteger("loadtest.seconds", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+    private final int users = Integer.getInteger("loadtest.users", 20);
+    private final int titles = Integer.getInteger("loadtest.titles", 300);
+    private final int[] mix = Arrays.stream(System.getProperty("loadtest.mix", "20/50/20/10").split("/"))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    /**
+     * Known watchlist entry ids per user, learned from list responses.
+     */
+    private final Map<String, List<Long>> knownIds = new ConcurrentHashMap<>();
+
+    private String baseUrl;
+
+    /**
+     * Runs the warm-up and the measured phase and prints the report.
+     */
+    @Test
+    void mixedWorkload() throws Exception {
+        File dir = Files.createTempDirectory("loadtest").toFile();
+        try (UpstreamStub stub = new UpstreamStub(UpstreamStub.Config.fromSystemProperties());
+             ConfigurableApplicationContext app = startApplication(stub, dir)) {
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port + "/movies";
+
+            drive(warmupSeconds, new Recorder());
+
+            Recorder recorder = new Recorder();
+            long upstreamBefore = stub.requests();
+            drive(seconds, recorder);
+
+            recorder.print(seconds);
+            System.out.printf("upstream: %d requests, %d injected 500s, %d injected 429s (total)%n",
+                    stub.requests() - upstreamBefore, stub.errors(), stub.throttled());
+
+            assertTrue(recorder.completed() > 0, "no requests completed");
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(UpstreamStub stub, File dir) {
+        List<String> args = new ArrayList<>(List.of(stub.applicationArguments()));
+        args.add("--server.port=0");
+        args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        args.add("--images.store.root=" + new File(dir, "images").getAbsolutePath());
+        args.add("--logging.level.root=WARN");
+        args.add("--cache.snapshot.path=");
+        return new SpringApplicationBuilder(MoviewatchlistApplication.class).run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Issues requests at the target rate for the given duration and waits for in-flight requests.
+     */
+    private void drive(int durationSeconds, Recorder recorder) throws InterruptedException {
+        if (durationSeconds <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        AtomicLong tick = new AtomicLong();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            long scheduledAt = start + tick.getAndIncrement() * periodNanos;
+            inFlight.incrementAndGet();
+            send(scheduledAt, recorder).whenComplete((ignored, error) -> inFlight.decrementAndGet());
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        scheduler.shutdownNow();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private CompletableFuture<?> send(long scheduledAt, Recorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String user = "user-" + random.nextInt(users);
+        Operation operation = pickOperation(random);
+        List<Long> ids = knownIds.getOrDefault(user, List.of());
+
+        // Rating and similar need an existing entry; list the watchlist until we know one
+        if ((operation == Operation.RATE || operation == Operation.SIMILAR) && ids.isEmpty()) {
+            operation = Operation.LIST;
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header(MovieController.USER_HEADER, user);
+
+        switch (operation) {
+            case ADD -> request.uri(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"title\":\"Movie " + random.nextInt(titles) + "\"}"));
+            case LIST -> request.uri(URI.create(baseUrl + "?page=0&size=10")).GET();
+            case RATE -> request.uri(URI.create(baseUrl + "/" + ids.get(random.nextInt(ids.size()))
+                            + "/rating?rating=" + (1 + random.nextInt(5))))
+                    .PUT(HttpRequest.BodyPublishers.noBody());
+            case SIMILAR -> request.uri(URI.create(baseUrl + "/" + ids.get(random.nextInt(ids.size())) + "/similar"))
+                    .GET();
+        }
+
+        Operation op = operation;
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - scheduledAt;
+                    boolean ok = error == null && response.statusCode() < 400;
+                    recorder.record(op, latency, ok);
+                    if (ok && op == Operation.LIST) {
+                        rememberIds(user, response.body());
+                    }
+                });
+    }
+
+    private Operation pickOperation(ThreadLocalRandom random) {
+        int roll = random.nextInt(Arrays.stream(mix).sum());
+        for (int i = 0; i < mix.length; i++) {
+            roll -= mix[i];
+            if (roll < 0) {
+                return Operation.values()[i];
+            }
+        }
+        return Operation.LIST;
+    }
+
+    private void rememberIds(String user, String body) {
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (JsonNode movie : mapper.readTree(body).path("content")) {
+                ids.add(movie.path("id").asLong());
+            }
+            knownIds.put(user, ids);
+        } catch (Exception ignored) {
+            // a malformed list response is already counted by the recorder
+        }
+    }
+
+    /**
+     * Collects per-operation latencies and error counts.
+     */
+    private static class Recorder {
+
+        private final Map<Operation, Collection<Long>> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+        Recorder() {
+            for (Operation op : Operation.values()) {
+                latencies.put(op, new ConcurrentLinkedQueue<>());
+                errors.put(op, new AtomicLong());
+            }
+        }
+
+        void record(Operation op, long latencyNanos, boolean ok) {
+            latencies.get(op).add(latencyNanos);
+            if (!ok) {
+                errors.get(op).incrementAndGet();
+            }
+        }
+
+        long completed() {
+            return latencies.values().stream().mapToLong(Collection::size).sum();
+        }
+
+        void print(int seconds) {
+            System.out.printf("%n%-8s %8s %8s %8s %9s %9s %9s %9s%n",
+                    "op", "count", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            List<Long> all = new ArrayList<>();
+            long totalErrors = 0;
+            for (Operation op : Operation.values()) {
+                Collection<Long> samples = latencies.get(op);
+                all.addAll(samples);
+                totalErrors += errors.get(op).get();
+                printRow(op.name().toLowerCase(), samples, errors.get(op).get(), seconds);
+            }
+            printRow("total", all, totalErrors, seconds);
+        }
+
+        private static void printRow(String name, Collection<Long> samples, long errors, int seconds) {
+            long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-8s %8d %8d %8.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    name, sorted.length, errors, sorted.length / (double) seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90),
+                    percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
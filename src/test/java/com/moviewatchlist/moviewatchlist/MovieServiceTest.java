@@ -2,24 +2,50 @@ package com.moviewatchlist.moviewatchlist;
 
 import com.moviewatchlist.client.OmdbClient;
 import com.moviewatchlist.client.TmdbClient;
+import com.moviewatchlist.dto.MovieDTO;
+import com.moviewatchlist.dto.SimilarMoviesBatch;
+import com.moviewatchlist.dto.WatchlistEvent;
 import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
 import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import com.moviewatchlist.service.ColumnarCatalog;
+import com.moviewatchlist.service.ImageRenditionService;
 import com.moviewatchlist.service.ImageService;
+import com.moviewatchlist.service.ImageStore;
 import com.moviewatchlist.service.MovieService;
+import com.moviewatchlist.service.SimilarPrefetcher;
+import com.moviewatchlist.service.UpstreamCache;
+import com.moviewatchlist.service.WatchlistEventBus;
+import com.moviewatchlist.service.WatchlistVersions;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Page;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -30,7 +56,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * <p>
  * This test class verifies the behavior of core service methods:
  * adding a movie, deleting it, updating its watched status,
- * and updating the rating.
+ * and updating the rating, all scoped to a single user.
  */
 @ExtendWith(MockitoExtension.class)
 public class MovieServiceTest {
@@ -38,22 +64,50 @@ public class MovieServiceTest {
     @Mock
     private MovieRepository repository;
 
+    @Mock
+    private WatchlistEntryRepository entries;
+
     @Mock
     private ImageService imageService;
 
+    @Mock
+    private ImageRenditionService renditionService;
+
+    @Mock
+    private ImageStore imageStore;
+
     @Mock
     private OmdbClient omdbClient;
 
      @Mock
     private TmdbClient tmdbClient; 
 
+    @Mock
+    private WatchlistEventBus eventBus;
+
+    @Mock
+    private ColumnarCatalog catalog;
+
+    @Mock
+    private SimilarPrefetcher prefetcher;
+
+    @Mock
+    private WatchlistVersions versions;
+
+    @Spy
+    private UpstreamCache upstreamCache = new UpstreamCache(100, "", Duration.ofHours(1));
+
+    @Spy
+    private Executor upstreamExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private MovieService service;
 
+    private static final String USER = "alice";
+
     /**
-     * Verifies that {@link MovieService#addMovie(String)} correctly
-     * calls the repository's save method when valid data is returned
-     * from external clients.
+     * Verifies that {@link MovieService#addMovie(String, String)} stores a movie
+     * that is not yet in the catalog and adds it to the user's watchlist.
      */
     @Test
     void testAddMovieShouldCallRepository() {
@@ -63,100 +117,357 @@ public class MovieServiceTest {
                         .release_year("2010")
                         .director("Nolan")
                         .genre("Sci-Fi")
-                        .watched(false)
-                        .rating(0)
                         .build();
 
+        when(repository.findFirstByTitleKey("inception")).thenReturn(Optional.empty());
         when(omdbClient.fetchMovie(title)).thenReturn(dummy);
         when(imageService.fetchImage(title)).thenReturn("mock/path.jpg");
+        when(renditionService.createRenditions("mock/path.jpg"))
+                .thenReturn(Map.of(ImageRenditionService.THUMB, "mock/path_thumb.jpg"));
 
-        service.addMovie(title);
+        service.addMovie(USER, title);
 
-        verify(repository).save(any(Movie.class));
+        verify(repository).save(dummy);
+        verify(entries).save(any(WatchlistEntry.class));
+        verify(imageStore).register("mock/path.jpg");
+        verify(catalog).add(any(WatchlistEntry.class), eq(dummy), anyLong());
+        assertEquals("mock/path_thumb.jpg", dummy.getThumbnailPath());
+        assertEquals("inception", dummy.getTitleKey());
+        verify(eventBus).publish(eq(USER), argThat(event -> event.getType() == WatchlistEvent.Type.ADDED));
+        verify(eventBus).publish(eq(USER), argThat(event -> event.getType() == WatchlistEvent.Type.IMAGE_READY));
     }
 
     /**
-     * Verifies that {@link MovieService#deleteMovie(Long)} correctly
-     * invokes repository deletion.
+     * Verifies that a failure to create the renditions does not fail the add, and that
+     * the original image is served in place of the missing renditions.
+     */
+    @Test
+    void testAddMovieWithoutRenditionsServesOriginal() throws Exception {
+        String title = "Inception";
+        Movie dummy = Movie.builder().title(title).build();
+        Path original = Files.createTempFile("image1", ".jpg");
+        try {
+            when(repository.findFirstByTitleKey("inception")).thenReturn(Optional.empty());
+            when(omdbClient.fetchMovie(title)).thenReturn(dummy);
+            when(imageService.fetchImage(title)).thenReturn(original.toString());
+            when(renditionService.createRenditions(original.toString()))
+                    .thenThrow(new RuntimeException("Failed to write rendition"));
+
+            service.addMovie(USER, title);
+
+            verify(repository).save(dummy);
+            verify(imageStore).register(original.toString());
+            assertNull(dummy.getThumbnailPath());
+            assertNull(dummy.getMediumPath());
+
+            WatchlistEntry entry = WatchlistEntry.builder().id(1L).userId(USER).movie(dummy).build();
+            when(entries.findByIdAndUserId(1L, USER)).thenReturn(Optional.of(entry));
+            assertEquals(Optional.of(original), service.getImage(USER, 1L, ImageRenditionService.THUMB));
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+
+    /**
+     * Verifies that an add whose catalog movie is deleted by the last other user's delete
+     * before the entry is stored fetches the movie again instead of failing.
+     */
+    @Test
+    void testAddMovieRefetchesCatalogMovieDeletedMeanwhile() {
+        Movie deleted = Movie.builder().id(7L).title("Inception").titleKey("inception").build();
+        Movie fetched = Movie.builder().title("Inception").build();
+        when(repository.findFirstByTitleKey("inception")).thenReturn(Optional.of(deleted), Optional.empty());
+        when(repository.existsById(7L)).thenReturn(false);
+        when(entries.save(any(WatchlistEntry.class)))
+                .thenThrow(new DataIntegrityViolationException("FK_WATCHLIST_ENTRY_MOVIE"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(omdbClient.fetchMovie("Inception")).thenReturn(fetched);
+        when(imageService.fetchImage("Inception")).thenReturn("mock/path.jpg");
+        when(renditionService.createRenditions("mock/path.jpg")).thenReturn(Map.of());
+
+        service.addMovie(USER, "Inception");
+
+        verify(repository).save(fetched);
+        verify(entries).save(argThat(entry -> entry.getMovie() == fetched));
+        verify(catalog).add(any(WatchlistEntry.class), eq(fetched), anyLong());
+        verify(catalog, never()).add(any(WatchlistEntry.class), eq(deleted), anyLong());
+    }
+
+    /**
+     * Verifies that adding a movie that is already in the catalog makes no
+     * external calls and only creates the user's watchlist entry.
+     */
+    @Test
+    void testAddMovieFromCatalogSkipsExternalCalls() {
+        Movie cached = Movie.builder().id(7L).title("Inception").titleKey("inception").build();
+        when(repository.findFirstByTitleKey("inception")).thenReturn(Optional.of(cached));
+        when(entries.findByUserIdAndMovieId(USER, 7L)).thenReturn(Optional.empty());
+
+        service.addMovie(USER, "  INCEPTION ");
+
+        verify(entries).save(argThat(entry -> entry.getMovie() == cached && USER.equals(entry.getUserId())));
+        verifyNoInteractions(omdbClient, imageService, renditionService);
+        verify(repository, never()).save(any());
+    }
+
+    /**
+     * Verifies that concurrent adds of the same title by different users share one
+     * OMDb fetch and one catalog row.
+     */
+    @Test
+    void testConcurrentAddsOfSameTitleFetchOnce() throws Exception {
+        AtomicReference<Movie> stored = new AtomicReference<>();
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findFirstByTitleKey("inception")).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        when(omdbClient.fetchMovie("Inception")).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Movie.builder().title("Inception").build();
+        });
+        when(imageService.fetchImage("Inception")).thenReturn("mock/path.jpg");
+        when(repository.save(any(Movie.class))).thenAnswer(invocation -> {
+            Movie movie = invocation.getArgument(0);
+            movie.setId(7L);
+            stored.set(movie);
+            return movie;
+        });
+
+        ExecutorService users = Executors.newFixedThreadPool(2);
+        try {
+            Future<MovieDTO> first = users.submit(() -> service.addMovie("alice", "Inception"));
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            Future<MovieDTO> second = users.submit(() -> service.addMovie("bob", " inception"));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("Inception", first.get(5, TimeUnit.SECONDS).getTitle());
+            assertEquals("Inception", second.get(5, TimeUnit.SECONDS).getTitle());
+        } finally {
+            users.shutdownNow();
+        }
+
+        verify(omdbClient, times(1)).fetchMovie(any());
+        verify(repository, times(1)).save(any(Movie.class));
+        verify(entries, times(2)).save(argThat(entry -> entry.getMovie() == stored.get()));
+    }
+
+    /**
+     * Verifies that a title whose OMDb result is already in the catalog under its IMDb id
+     * reuses that movie, discards the duplicate download and remembers the title as an alias.
+     */
+    @Test
+    void testAddMovieReusesCatalogMovieWithSameImdbId() {
+        Movie existing = Movie.builder().id(7L).title("Se7en").titleKey("se7en").imdbId("tt0114369")
+                .imagePath("images/ab/cd/Se7en/image1.jpg").build();
+        when(repository.findFirstByTitleKey("seven")).thenReturn(Optional.empty());
+        when(omdbClient.fetchMovie("Seven")).thenReturn(Movie.builder().title("Se7en").imdbId("tt0114369").build());
+        when(imageService.fetchImage("Seven")).thenReturn("images/12/34/Seven/image1.jpg");
+        when(repository.findFirstByImdbId("tt0114369")).thenReturn(Optional.of(existing));
+
+        MovieDTO dto = service.addMovie(USER, "Seven");
+
+        assertEquals("Se7en", dto.getTitle());
+        verify(repository, never()).save(any());
+        verify(imageStore).delete("images/12/34/Seven/image1.jpg");
+        verify(entries).save(argThat(entry -> entry.getMovie() == existing));
+        verify(repository).saveAlias("seven", 7L);
+    }
+
+    /**
+     * Verifies that a title OMDb resolved to a catalog movie of another title before is
+     * found through its alias without external calls.
+     */
+    @Test
+    void testAddMovieByAliasSkipsExternalCalls() {
+        Movie existing = Movie.builder().id(7L).title("Se7en").titleKey("se7en").build();
+        when(repository.findFirstByTitleKey("seven")).thenReturn(Optional.empty());
+        when(repository.findFirstByAlias("seven")).thenReturn(Optional.of(existing));
+        when(entries.findByUserIdAndMovieId(USER, 7L)).thenReturn(Optional.empty());
+
+        assertEquals("Se7en", service.addMovie(USER, "Seven").getTitle());
+
+        verifyNoInteractions(omdbClient, imageService, renditionService);
+        verify(repository, never()).saveAlias(anyString(), anyLong());
+    }
+
+    /**
+     * Verifies that {@link MovieService#deleteMovie(String, Long)} removes only
+     * the user's entry while other users still have the movie, also when another user
+     * added it just before the catalog row would have been deleted.
      */
     @Test
     void testDeleteMovie() {
-        service.deleteMovie(1L);
-        verify(repository, times(1)).deleteById(1L);
+        Movie movie = Movie.builder().id(7L).imagePath("images/ab/cd/Inception/image1.jpg").build();
+        WatchlistEntry entry = WatchlistEntry.builder().id(1L).userId(USER).movie(movie).build();
+        when(entries.findByIdAndUserId(1L, USER)).thenReturn(Optional.of(entry));
+        when(repository.deleteIfUnused(7L)).thenReturn(0);
+
+        service.deleteMovie(USER, 1L);
+
+        verify(entries, times(1)).delete(entry);
+        verify(catalog).remove(USER, 1L, 0L);
+        verify(repository, never()).deleteById(any());
+        verifyNoInteractions(imageStore);
+        verify(eventBus).publish(eq(USER), argThat(event -> event.getType() == WatchlistEvent.Type.DELETED
+                && event.getId() == 1L));
+    }
+
+    /**
+     * Verifies that {@link MovieService#deleteMovie(String, Long)} also removes
+     * the catalog movie and its images once no user has it anymore.
+     */
+    @Test
+    void testDeleteMovieRemovesImages() {
+        Movie movie = Movie.builder().id(7L).imagePath("images/ab/cd/Inception/image1.jpg").build();
+        WatchlistEntry entry = WatchlistEntry.builder().id(1L).userId(USER).movie(movie).build();
+        when(entries.findByIdAndUserId(1L, USER)).thenReturn(Optional.of(entry));
+        when(repository.deleteIfUnused(7L)).thenReturn(1);
+
+        service.deleteMovie(USER, 1L);
+
+        verify(entries).delete(entry);
+        verify(repository).deleteIfUnused(7L);
+        verify(imageStore).delete("images/ab/cd/Inception/image1.jpg");
     }
 
     /**
-     * Verifies that {@link MovieService#updateWatched(Long, boolean)}
-     * updates the movie's watched status and persists the change.
+     * Verifies that {@link MovieService#updateWatched(String, Long, boolean)}
+     * updates the entry's watched status and persists the change.
      */
     @Test
     void testUpdateWatched() {
-        Movie movie = Movie.builder().id(1L).watched(false).build();
-        when(repository.findById(1L)).thenReturn(Optional.of(movie));
+        WatchlistEntry entry = WatchlistEntry.builder().id(1L).userId(USER).movie(new Movie()).watched(false).build();
+        when(entries.findByIdAndUserId(1L, USER)).thenReturn(Optional.of(entry));
 
-        service.updateWatched(1L, true);
-        verify(repository).save(movie);
-        assertTrue(movie.isWatched());
+        service.updateWatched(USER, 1L, true);
+        verify(entries).save(entry);
+        verify(catalog).update(entry, 0L);
+        assertTrue(entry.isWatched());
     }
 
     /**
-     * Verifies that {@link MovieService#updateRating(Long, int)}
-     * updates the rating of a movie and saves it.
+     * Verifies that {@link MovieService#updateRating(String, Long, int)}
+     * updates the rating of an entry, saves it and changes only that user's watchlist ETag.
      */
     @Test
     void testUpdateRating() {
-        Movie movie = Movie.builder().id(1L).rating(0).build();
-        when(repository.findById(1L)).thenReturn(Optional.of(movie));
+        WatchlistEntry entry = WatchlistEntry.builder().id(1L).userId(USER).movie(new Movie()).rating(0).build();
+        when(entries.findByIdAndUserId(1L, USER)).thenReturn(Optional.of(entry));
 
-        service.updateRating(1L, 4);
-        verify(repository).save(movie);
-        assertEquals(4, movie.getRating());
+        service.updateRating(USER, 1L, 4);
+        verify(entries).save(entry);
+        verify(versions).increment(USER);
+        verify(versions, never()).increment("bob");
+        assertEquals(4, entry.getRating());
+        verify(eventBus).publish(eq(USER), argThat(event -> event.getType() == WatchlistEvent.Type.RATED
+                && event.getMovie().getRating() == 4));
     }
 
-        /**
-     * Verifies that {@link MovieService#getAllMovies(int, int)}
-     * correctly returns a paginated list of movies as expected
-     * from the repository. This ensures that pagination parameters
-     * are handled properly and passed through to the data layer.
+    /**
+     * Verifies that {@link MovieService#getAllMovies(String, int, int)}
+     * returns the page of the user's movies from the {@link ColumnarCatalog}
+     * without querying the repository, passing the pagination parameters through.
      */
     @Test
     void testGetAllMoviesReturnsPagedResult() {
-        List<Movie> movieList = List.of(
-                Movie.builder().title("Inception").build(),
-                Movie.builder().title("Interstellar").build());
-        Page<Movie> page = new PageImpl<>(movieList);
+        List<MovieDTO> movies = List.of(
+                MovieDTO.builder().id(1L).title("Inception").rating(5).build(),
+                MovieDTO.builder().id(2L).title("Interstellar").build());
+        Page<MovieDTO> page = new PageImpl<>(movies, PageRequest.of(0, 10), 2);
 
-        when(repository.findAll(PageRequest.of(0, 10))).thenReturn(page);
+        when(catalog.find(eq(USER), any(), eq(0), eq(10))).thenReturn(page);
 
-        Page<Movie> result = service.getAllMovies(0, 10);
+        Page<MovieDTO> result = service.getAllMovies(USER, 0, 10);
 
         assertEquals(2, result.getContent().size());
         assertEquals("Inception", result.getContent().get(0).getTitle());
-        verify(repository).findAll(PageRequest.of(0, 10));
+        assertEquals(5, result.getContent().get(0).getRating());
+        assertEquals(1L, result.getContent().get(0).getId());
+        verifyNoInteractions(entries);
     }
 
     /**
-     * Verifies that {@link MovieService#getSimilarMovies(Long)}
-     * correctly calls the external client to fetch similar movies
-     * and returns a list of movie titles.
+     * Verifies that {@link MovieService#getSimilarMovies(String, Long)}
+     * correctly calls the external client to fetch similar movies,
+     * returns a list of movie titles and hands them to the prefetcher.
      */
     @Test
     void testGetSimilarMoviesReturnsList() {
-        Long movieId = 1L;
+        Long entryId = 1L;
         String title = "Inception";
-        Movie movie = Movie.builder().id(movieId).title(title).build();
+        Movie movie = Movie.builder().id(7L).title(title).build();
+        WatchlistEntry entry = WatchlistEntry.builder().id(entryId).userId(USER).movie(movie).build();
 
-        when(repository.findById(movieId)).thenReturn(Optional.of(movie));
+        when(entries.findByIdAndUserId(entryId, USER)).thenReturn(Optional.of(entry));
         when(tmdbClient.fetchTmdbId(title)).thenReturn(123L);
         when(tmdbClient.fetchSimilarMovies(123L)).thenReturn(List.of("Tenet", "The Prestige"));
 
-        List<String> result = service.getSimilarMovies(movieId);
+        List<String> result = service.getSimilarMovies(USER, entryId);
 
         assertEquals(2, result.size());
         assertTrue(result.contains("Tenet"));
         assertTrue(result.contains("The Prestige"));
         verify(tmdbClient).fetchTmdbId(title);
         verify(tmdbClient).fetchSimilarMovies(123L);
+        verify(prefetcher).prefetch(result);
+    }
+
+    /**
+     * Verifies that repeated similar-movie lookups for a title are served from the
+     * {@link UpstreamCache} without calling TMDB again.
+     */
+    @Test
+    void testSimilarToIsCached() {
+        when(tmdbClient.fetchTmdbId("Inception")).thenReturn(123L);
+        when(tmdbClient.fetchSimilarMovies(123L)).thenReturn(List.of("Tenet"));
+
+        assertEquals(List.of("Tenet"), service.similarTo("Inception"));
+        assertEquals(List.of("Tenet"), service.similarTo(" inception "));
+
+        verify(tmdbClient, times(1)).fetchTmdbId(any());
+        verify(tmdbClient, times(1)).fetchSimilarMovies(any());
+    }
+
+    /**
+     * Verifies that {@link MovieService#getSimilarMovies(String, java.util.Collection)} loads all
+     * entries in one query and returns the lists it could fetch, reporting unknown ids and
+     * failed upstream lookups separately.
+     */
+    @Test
+    void testGetSimilarMoviesBatchReturnsPartialResults() {
+        WatchlistEntry inception = WatchlistEntry.builder().id(1L).userId(USER)
+                .movie(Movie.builder().id(7L).title("Inception").build()).build();
+        WatchlistEntry tenet = WatchlistEntry.builder().id(2L).userId(USER)
+                .movie(Movie.builder().id(8L).title("Tenet").build()).build();
+        when(entries.findByUserIdAndIdIn(eq(USER), any())).thenReturn(List.of(tenet, inception));
+        when(tmdbClient.fetchTmdbId("Inception")).thenReturn(123L);
+        when(tmdbClient.fetchSimilarMovies(123L)).thenReturn(List.of("The Prestige"));
+        when(tmdbClient.fetchTmdbId("Tenet")).thenThrow(new RuntimeException("TMDB rate limit exceeded"));
+
+        SimilarMoviesBatch result = service.getSimilarMovies(USER, List.of(1L, 2L, 3L, 1L));
+
+        assertEquals(Map.of(1L, List.of("The Prestige")), result.getSimilar());
+        assertEquals(List.of(3L), result.getNotFound());
+        assertEquals(List.of(2L), result.getFailed());
+        verify(entries, times(1)).findByUserIdAndIdIn(eq(USER), any());
+    }
+
+    /**
+     * Verifies that {@link MovieService#getMovies(String, java.util.Collection)} returns the
+     * user's entries in request order and skips ids that are not on the watchlist.
+     */
+    @Test
+    void testGetMoviesKeepsRequestOrder() {
+        WatchlistEntry inception = WatchlistEntry.builder().id(1L).userId(USER)
+                .movie(Movie.builder().id(7L).title("Inception").build()).build();
+        WatchlistEntry tenet = WatchlistEntry.builder().id(2L).userId(USER)
+                .movie(Movie.builder().id(8L).title("Tenet").build()).build();
+        when(entries.findByUserIdAndIdIn(eq(USER), any())).thenReturn(List.of(inception, tenet));
+
+        List<MovieDTO> result = service.getMovies(USER, List.of(2L, 9L, 1L));
+
+        assertEquals(List.of("Tenet", "Inception"), result.stream().map(MovieDTO::getTitle).toList());
     }
 
 }
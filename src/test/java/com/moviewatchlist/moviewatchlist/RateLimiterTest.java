@@ -0,0 +1,71 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.client.RateLimiter;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link RateLimiter}.
+ * Verifies the burst capacity, taking several permits at once, the spacing of later permits
+ * and the wait timeout.
+ */
+public class RateLimiterTest {
+
+    /**
+     * Verifies that a full burst is available at once and a caller that would wait too long gets no permit.
+     */
+    @Test
+    void tryAcquire_shouldAllowBurstThenRefuse() {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(Duration.ZERO));
+        }
+        assertFalse(limiter.tryAcquire(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Verifies that several permits are taken together only if all of them fit into the burst.
+     */
+    @Test
+    void tryAcquire_multiplePermits_shouldTakeAllOrNone() {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        assertFalse(limiter.tryAcquire(4, Duration.ZERO));
+        assertTrue(limiter.tryAcquire(2, Duration.ZERO));
+        assertFalse(limiter.tryAcquire(2, Duration.ZERO));
+        assertTrue(limiter.tryAcquire(1, Duration.ZERO));
+        assertFalse(limiter.tryAcquire(Duration.ZERO));
+    }
+
+    /**
+     * Verifies that permits beyond the burst are handed out at the configured rate.
+     */
+    @Test
+    void tryAcquire_shouldWaitForNextPermit() {
+        RateLimiter limiter = new RateLimiter(20, 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Duration.ofSeconds(1)));
+        }
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis >= 190, "4 permits at 20/s take at least 200 ms, took " + elapsedMillis);
+    }
+
+    /**
+     * Verifies that a rate of zero disables the limit.
+     */
+    @Test
+    void tryAcquire_withoutLimit_shouldNeverRefuse() {
+        RateLimiter limiter = new RateLimiter(0, 1);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire(Duration.ZERO));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.client.ReactiveOmdbClient;
+import com.moviewatchlist.client.ReactiveTmdbClient;
+import com.moviewatchlist.model.ReactiveMovie;
+import com.moviewatchlist.model.ReactiveWatchlistEntry;
+import com.moviewatchlist.repository.ReactiveMovieRepository;
+import com.moviewatchlist.repository.ReactiveWatchlistEntryRepository;
+import com.moviewatchlist.service.ImageRenditionService;
+import com.moviewatchlist.service.ImageStore;
+import com.moviewatchlist.service.ReactiveImageService;
+import com.moviewatchlist.service.ReactiveMovieService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReactiveMovieService} using Mockito and {@link StepVerifier}.
+ * <p>
+ * Verifies that the reactive add and delete flows make the same catalog and
+ * watchlist decisions as the blocking {@code MovieService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveMovieServiceTest {
+
+    @Mock
+    private ReactiveMovieRepository repository;
+
+    @Mock
+    private ReactiveWatchlistEntryRepository entries;
+
+    @Mock
+    private ReactiveImageService imageService;
+
+    @Mock
+    private ImageRenditionService renditionService;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ReactiveOmdbClient omdbClient;
+
+    @Mock
+    private ReactiveTmdbClient tmdbClient;
+
+    @InjectMocks
+    private ReactiveMovieService service;
+
+    private static final String USER = "alice";
+
+    /**
+     * Verifies that a movie not yet in the catalog is fetched, stored with its
+     * renditions and added to the user's watchlist.
+     */
+    @Test
+    void addMovie_shouldFetchAndStoreNewMovie() {
+        ReactiveMovie fetched = ReactiveMovie.builder().title("Inception").director("Nolan").build();
+        when(repository.findFirstByTitleKey("inception")).thenReturn(Mono.empty());
+        when(repository.findFirstByAlias("inception")).thenReturn(Mono.empty());
+        when(omdbClient.fetchMovie("Inception")).thenReturn(Mono.just(fetched));
+        when(imageService.fetchImage("Inception")).thenReturn(Mono.just("mock/path.jpg"));
+        when(renditionService.createRenditions("mock/path.jpg"))
+                .thenReturn(Map.of(ImageRenditionService.THUMB, "mock/path_thumb.jpg"));
+        when(repository.save(fetched)).thenAnswer(invocation -> {
+            fetched.setId(7L);
+            return Mono.just(fetched);
+        });
+        when(entries.findByUserIdAndMovieId(USER, 7L)).thenReturn(Mono.empty());
+        when(entries.save(any(ReactiveWatchlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(entries.incrementVersion(USER)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.addMovie(USER, "Inception"))
+                .assertNext(dto -> assertEquals("mock/path_thumb.jpg", dto.getThumbnailPath()))
+                .verifyComplete();
+
+        assertEquals("inception", fetched.getTitleKey());
+        assertEquals("mock/path_thumb.jpg", fetched.getThumbnailPath());
+        verify(imageStore).register("mock/path.jpg");
+        verify(entries).save(argThat(entry -> entry.getMovieId() == 7L && USER.equals(entry.getUserId())));
+    }
+
+    /**
+     * Verifies that adding a movie that is already in the catalog makes no external calls.
+     */
+    @Test
+    void addMovie_fromCatalog_shouldSkipExternalCalls() {
+        ReactiveMovie cached = ReactiveMovie.builder().id(7L).title("Inception").titleKey("inception").build();
+        when(repository.findFirstByTitleKey("inception")).thenReturn(Mono.just(cached));
+        when(entries.findByUserIdAndMovieId(USER, 7L)).thenReturn(Mono.empty());
+        when(entries.save(any(ReactiveWatchlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(entries.incrementVersion(USER)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.addMovie(USER, " INCEPTION "))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verifyNoInteractions(omdbClient, imageService, renditionService);
+        verify(repository, never()).save(any());
+    }
+
+    /**
+     * Verifies that a title OMDb resolved to a catalog movie of another title before is
+     * found through its alias without external calls.
+     */
+    @Test
+    void addMovie_byAlias_shouldSkipExternalCalls() {
+        ReactiveMovie cached = ReactiveMovie.builder().id(7L).title("Se7en").titleKey("se7en").build();
+        when(repository.findFirstByTitleKey("seven")).thenReturn(Mono.empty());
+        when(repository.findFirstByAlias("seven")).thenReturn(Mono.just(cached));
+        when(entries.findByUserIdAndMovieId(USER, 7L)).thenReturn(Mono.empty());
+        when(entries.save(any(ReactiveWatchlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(entries.incrementVersion(USER)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.addMovie(USER, "Seven"))
+                .assertNext(dto -> assertEquals("Se7en", dto.getTitle()))
+                .verifyComplete();
+
+        verifyNoInteractions(omdbClient, imageService, renditionService);
+    }
+
+    /**
+     * Verifies that deleting the last entry of a movie removes it from the catalog
+     * together with its images.
+     */
+    @Test
+    void deleteMovie_lastEntry_shouldRemoveCatalogMovie() {
+        ReactiveWatchlistEntry entry = ReactiveWatchlistEntry.builder().id(1L).userId(USER).movieId(7L).build();
+        ReactiveMovie movie = ReactiveMovie.builder().id(7L).imagePath("mock/path.jpg").build();
+        when(entries.findByIdAndUserId(1L, USER)).thenReturn(Mono.just(entry));
+        when(entries.delete(entry)).thenReturn(Mono.empty());
+        when(entries.incrementVersion(USER)).thenReturn(Mono.just(1L));
+        when(repository.findById(7L)).thenReturn(Mono.just(movie));
+        when(repository.deleteIfUnused(7L)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(service.deleteMovie(USER, 1L)).verifyComplete();
+
+        verify(entries).incrementVersion(USER);
+
+        verify(imageStore).delete("mock/path.jpg");
+    }
+
+    /**
+     * Verifies that the image file check and the access record run on the bounded elastic
+     * scheduler rather than on the calling thread, and that a missing rendition falls back
+     * to the original image.
+     */
+    @Test
+    void getImage_shouldTouchStoreOffCallingThread() throws Exception {
+        Path original = Files.createTempFile("image1", ".jpg");
+        try {
+            ReactiveWatchlistEntry entry = ReactiveWatchlistEntry.builder().id(1L).userId(USER).movieId(7L).build();
+            ReactiveMovie movie = ReactiveMovie.builder().id(7L).imagePath(original.toString()).build();
+            when(entries.findByIdAndUserId(1L, USER)).thenReturn(Mono.just(entry));
+            when(repository.findById(7L)).thenReturn(Mono.just(movie));
+            AtomicReference<String> touchedOn = new AtomicReference<>();
+            doAnswer(invocation -> {
+                touchedOn.set(Thread.currentThread().getName());
+                return null;
+            }).when(imageStore).touch(original.toString());
+
+            StepVerifier.create(service.getImage(USER, 1L, ImageRenditionService.THUMB))
+                    .expectNext(original)
+                    .verifyComplete();
+
+            assertTrue(touchedOn.get().startsWith("boundedElastic"), "touched on " + touchedOn.get());
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.client.OmdbClient;
+import com.moviewatchlist.client.RateLimiter;
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.service.ImageService;
+import com.moviewatchlist.service.ImageStore;
+import com.moviewatchlist.service.SimilarPrefetcher;
+import com.moviewatchlist.service.UpstreamCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for {@link SimilarPrefetcher}.
+ * Verifies that the first similar titles are warmed into the {@link UpstreamCache}, that
+ * prefetching stays within its share of the TMDB rate limit and that hits are counted.
+ */
+public class SimilarPrefetcherTest {
+
+    private MovieRepository repo;
+    private OmdbClient omdbClient;
+    private ImageService imageService;
+    private UpstreamCache upstreamCache;
+    private MeterRegistry registry;
+    private SimilarPrefetcher prefetcher;
+
+    /**
+     * Sets up mocked upstream clients that answer every title.
+     */
+    @BeforeEach
+    void setup() {
+        repo = mock(MovieRepository.class);
+        omdbClient = mock(OmdbClient.class);
+        imageService = mock(ImageService.class);
+        upstreamCache = new UpstreamCache(100, "", Duration.ofHours(1));
+        registry = new SimpleMeterRegistry();
+
+        when(repo.findFirstByTitleKey(anyString())).thenReturn(Optional.empty());
+        when(omdbClient.fetchMovie(anyString()))
+                .thenAnswer(invocation -> Movie.builder().title(invocation.getArgument(0)).build());
+        when(imageService.tryFindImagePaths(anyString(), any())).thenReturn(Optional.of(List.of("/poster.jpg")));
+    }
+
+    /**
+     * Stops the prefetch thread.
+     */
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    /**
+     * Verifies that only the top titles are prefetched and that adding one counts as a hit.
+     */
+    @Test
+    void prefetch_shouldWarmTopTitlesAndCountHits() throws InterruptedException {
+        prefetcher = prefetcher(true, 2, 1.0, 1_000_000);
+
+        prefetcher.prefetch(List.of("Tenet", "The Prestige", "Memento"));
+        awaitTitles(2);
+
+        assertEquals(2, titles("prefetched"));
+        assertTrue(upstreamCache.isWarm("tenet"));
+        assertTrue(upstreamCache.isWarm("The Prestige"));
+        assertFalse(upstreamCache.isWarm("Memento"));
+
+        prefetcher.recordFetch("Tenet");
+        prefetcher.recordFetch("Memento");
+
+        assertEquals(1, registry.get("prefetch.adds").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("prefetch.adds").tag("result", "miss").counter().count());
+        assertEquals(0.5, registry.get("prefetch.hit.ratio").gauge().value());
+    }
+
+    /**
+     * Verifies that titles beyond the prefetch share of the rate limit are skipped, and
+     * that titles already in the catalog are not fetched.
+     */
+    @Test
+    void prefetch_shouldStayWithinRateShare() throws InterruptedException {
+        // A share of 1/s: the burst of 2 permits covers the two TMDB calls of a single title
+        prefetcher = prefetcher(true, 3, 0.25, 4);
+        when(repo.findFirstByTitleKey("memento")).thenReturn(Optional.of(new Movie()));
+
+        prefetcher.prefetch(List.of("Memento", "Tenet", "The Prestige"));
+        awaitTitles(2);
+
+        assertEquals(1, titles("prefetched"));
+        assertEquals(1, titles("skipped"));
+        verify(omdbClient, never()).fetchMovie("Memento");
+        verify(omdbClient, times(1)).fetchMovie(anyString());
+    }
+
+    /**
+     * Verifies that titles beyond the prefetch OMDb rate are skipped without any upstream call.
+     */
+    @Test
+    void prefetch_shouldStayWithinOmdbRate() throws InterruptedException {
+        prefetcher = prefetcher(true, 3, 1.0, 1_000_000, 0.001);
+
+        prefetcher.prefetch(List.of("Memento", "Tenet", "The Prestige"));
+        awaitTitles(3);
+
+        assertEquals(1, titles("prefetched"));
+        assertEquals(2, titles("skipped"));
+        verify(omdbClient, times(1)).fetchMovie(anyString());
+        verify(imageService, times(1)).tryFindImagePaths(anyString(), any());
+    }
+
+    /**
+     * Verifies that a title is skipped without any upstream call when user traffic has used
+     * up the TMDB limiter that image lookups share.
+     */
+    @Test
+    void prefetch_whenSharedLimitIsUsedUp_shouldSkip() throws InterruptedException {
+        RateLimiter tmdbLimiter = new RateLimiter(1, 2);
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        imageService = new ImageService(restTemplate, new ObjectMapper(),
+                new ImageStore("images", Long.MAX_VALUE, repo), upstreamCache, tmdbLimiter, Duration.ZERO);
+        prefetcher = prefetcher(true, 1, 1.0, 1000);
+
+        // The search and image list of a user's add
+        assertTrue(tmdbLimiter.tryAcquire(ImageService.TMDB_CALLS_PER_LOOKUP, Duration.ZERO));
+        prefetcher.prefetch(List.of("Tenet"));
+        awaitTitles(1);
+
+        assertEquals(1, titles("skipped"));
+        assertFalse(upstreamCache.isWarm("Tenet"));
+        verifyNoInteractions(restTemplate, omdbClient);
+    }
+
+    /**
+     * Verifies that nothing is fetched or counted when prefetching is disabled.
+     */
+    @Test
+    void prefetch_whenDisabled_shouldDoNothing() {
+        prefetcher = prefetcher(false, 3, 1.0, 1000);
+
+        prefetcher.prefetch(List.of("Tenet"));
+        prefetcher.recordFetch("Tenet");
+
+        verifyNoInteractions(omdbClient, imageService, repo);
+        assertEquals(0, registry.get("prefetch.adds").tag("result", "miss").counter().count());
+    }
+
+    private SimilarPrefetcher prefetcher(boolean enabled, int topN, double rateShare, double tmdbRate) {
+        // No OMDb limit
+        return prefetcher(enabled, topN, rateShare, tmdbRate, 0);
+    }
+
+    private SimilarPrefetcher prefetcher(boolean enabled, int topN, double rateShare, double tmdbRate,
+                                         double omdbRate) {
+        return new SimilarPrefetcher(repo, omdbClient, imageService, upstreamCache,
+                registry, enabled, topN, rateShare, tmdbRate, omdbRate, 16, 100);
+    }
+
+    private double titles(String result) {
+        return registry.get("prefetch.titles").tag("result", result).counter().count();
+    }
+
+    /**
+     * Waits until the given number of titles has been prefetched or skipped.
+     */
+    private void awaitTitles(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (titles("prefetched") + titles("skipped") + titles("failed") < count) {
+            assertTrue(System.nanoTime() < deadline, "prefetch did not finish in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.MoviewatchlistApplication;
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.model.WatchlistEntry;
+import com.moviewatchlist.repository.MovieRepository;
+import com.moviewatchlist.repository.WatchlistEntryRepository;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares repository throughput of the in-memory H2 database with the file-based
+ * H2 database used by the {@code prod} profile.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}. Each mode starts the real application context
+ * (Flyway migrations, HikariCP, JPA) without the web tier and runs the same workload:
+ * single-row inserts, paged reads of one user's watchlist and watched/rating updates.
+ */
+public class StorageModeBenchmark {
+
+    private static final int MOVIES = 2_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int WARMUP_ROUNDS = 1;
+    private static final String USER = "benchmark";
+
+    /**
+     * Runs the workload against both storage modes and prints the throughput of each.
+     */
+    @Test
+    void compareMemAndFileModes() throws Exception {
+        File dir = Files.createTempDirectory("storage-benchmark").toFile();
+        try {
+            Result mem = run("mem", dir,
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            Result file = run("file", dir,
+                    "--spring.profiles.active=prod",
+                    "--spring.datasource.url=jdbc:h2:file:" + new File(dir, "moviedb").getAbsolutePath());
+
+            System.out.printf("%n%-6s %12s %12s %12s%n", "mode", "insert/s", "page/s", "update/s");
+            for (Result result : List.of(mem, file)) {
+                System.out.printf("%-6s %12.0f %12.0f %12.0f%n",
+                        result.mode, result.insertsPerSecond, result.pagesPerSecond, result.updatesPerSecond);
+            }
+
+            assertTrue(mem.insertsPerSecond > 0 && file.insertsPerSecond > 0);
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private Result run(String mode, File dir, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--images.store.root=" + new File(dir, "images").getAbsolutePath());
+        arguments.add("--logging.level.root=WARN");
+        arguments.add("--cache.snapshot.path=");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MoviewatchlistApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(String[]::new))) {
+
+            MovieRepository repo = context.getBean(MovieRepository.class);
+            WatchlistEntryRepository entries = context.getBean(WatchlistEntryRepository.class);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                workload(repo, entries);
+                entries.deleteAllInBatch();
+                repo.deleteAllInBatch();
+            }
+            return workload(repo, entries).named(mode);
+        }
+    }
+
+    private Result workload(MovieRepository repo, WatchlistEntryRepository entries) {
+        List<Long> ids = new ArrayList<>(MOVIES);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = repo.save(Movie.builder()
+                    .title("Movie " + i)
+                    .titleKey("movie " + i)
+                    .release_year(String.valueOf(1950 + i % 70))
+                    .director("Director " + i % 200)
+                    .genre("Drama")
+                    .imagePath("images/ab/cd/Movie_" + i + "/image1.jpg")
+                    .build());
+            WatchlistEntry entry = entries.save(WatchlistEntry.builder()
+                    .userId(USER)
+                    .movie(movie)
+                    .build());
+            ids.add(entry.getId());
+        }
+        double inserts = rate(MOVIES, start);
+
+        int pages = MOVIES / PAGE_SIZE;
+        start = System.nanoTime();
+        for (int page = 0; page < pages; page++) {
+            entries.findByUserId(USER, PageRequest.of(page, PAGE_SIZE));
+        }
+        double reads = rate(pages, start);
+
+        start = System.nanoTime();
+        for (Long id : ids) {
+            WatchlistEntry entry = entries.findByIdAndUserId(id, USER).orElseThrow();
+            entry.setWatched(true);
+            entry.setRating(4);
+            entries.save(entry);
+        }
+        double updates = rate(MOVIES, start);
+
+        return new Result(null, inserts, reads, updates);
+    }
+
+    private static double rate(int operations, long startNanos) {
+        return operations / ((System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+
+    private record Result(String mode, double insertsPerSecond, double pagesPerSecond, double updatesPerSecond) {
+        Result named(String name) {
+            return new Result(name, insertsPerSecond, pagesPerSecond, updatesPerSecond);
+        }
+    }
+}
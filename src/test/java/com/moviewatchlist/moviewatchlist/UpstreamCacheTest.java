@@ -0,0 +1,186 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.moviewatchlist.model.Movie;
+import com.moviewatchlist.service.UpstreamCache;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link UpstreamCache}.
+ * Verifies caching of upstream lookups, LRU eviction, expiry and the snapshot written at shutdown.
+ */
+public class UpstreamCacheTest {
+
+    private Path dir;
+    private Path snapshot;
+    private AtomicInteger calls;
+    private MutableClock clock;
+
+    /**
+     * Creates a temporary directory for the snapshot file and a clock for the TTL.
+     */
+    @BeforeEach
+    void setup() throws Exception {
+        dir = Files.createTempDirectory("upstream-cache");
+        snapshot = dir.resolve("cache/upstream.snapshot");
+        calls = new AtomicInteger();
+        clock = new MutableClock();
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    /**
+     * Verifies that a cached title is matched by its normalized key and returned as a new movie.
+     */
+    @Test
+    void movie_shouldCallOmdbOncePerTitle() {
+        UpstreamCache cache = newCache(10);
+
+        Movie first = cache.movie("Inception", this::fetchMovie);
+        Movie second = cache.movie("  INCEPTION", this::fetchMovie);
+
+        assertEquals(1, calls.get());
+        assertEquals("tt1375666", second.getImdbId());
+        assertNotSame(first, second);
+    }
+
+    /**
+     * Verifies that the least recently used entry is evicted once a map is full.
+     */
+    @Test
+    void tmdbId_shouldEvictLeastRecentlyUsed() {
+        UpstreamCache cache = newCache(2);
+        cache.tmdbId("A", title -> 1L);
+        cache.tmdbId("B", title -> 2L);
+        cache.tmdbId("A", title -> fail("A is cached"));
+        cache.tmdbId("C", title -> 3L);
+
+        assertEquals(2, cache.size());
+        assertEquals(20L, cache.tmdbId("B", title -> 20L));
+    }
+
+    /**
+     * Verifies that the snapshot written at shutdown restores all lookups and their order in a new instance.
+     */
+    @Test
+    void snapshot_shouldRestoreLookups() {
+        UpstreamCache cache = newCache(10);
+        cache.movie("Inception", this::fetchMovie);
+        cache.tmdbId("Inception", title -> 27205L);
+        cache.similar(27205L, id -> List.of("Tenet", "Interstellar"));
+        cache.tmdbId("Tenet", title -> 577922L);
+        cache.similar(577922L, id -> List.of("Inception"));
+        cache.writeSnapshot();
+
+        UpstreamCache restored = newCache(10);
+        restored.loadSnapshot();
+
+        assertEquals(5, restored.size());
+        assertEquals(List.of("tenet", "inception"), restored.similarTitles(10));
+        assertEquals("Nolan", restored.movie("Inception", title -> fail("not cached")).getDirector());
+        assertEquals(List.of("Tenet", "Interstellar"),
+                restored.similar(restored.tmdbId("inception", title -> fail("not cached")), id -> fail("not cached")));
+    }
+
+    /**
+     * Verifies that an entry is fetched again once it is older than the TTL.
+     */
+    @Test
+    void similar_shouldRefetchExpiredList() {
+        UpstreamCache cache = newCache(10);
+        cache.similar(27205L, id -> List.of("Tenet"));
+        clock.advance(Duration.ofHours(23));
+        assertEquals(List.of("Tenet"), cache.similar(27205L, id -> fail("not expired yet")));
+
+        clock.advance(Duration.ofHours(2));
+
+        assertEquals(List.of("Interstellar"), cache.similar(27205L, id -> List.of("Interstellar")));
+        assertTrue(cache.similarTitles(10).isEmpty());
+    }
+
+    /**
+     * Verifies that the fetch time of a title's similar list is reported without upstream
+     * calls and changes once the list is fetched again.
+     */
+    @Test
+    void similarFetchedAt_shouldFollowRefetch() {
+        UpstreamCache cache = newCache(10);
+        assertTrue(cache.similarFetchedAt("Inception").isEmpty());
+
+        long fetchedAt = cache.similarWithFetchTime(cache.tmdbId("Inception", title -> 27205L),
+                id -> List.of("Tenet")).fetchedAt();
+        assertEquals(OptionalLong.of(fetchedAt), cache.similarFetchedAt(" inception"));
+
+        clock.advance(Duration.ofHours(25));
+        assertTrue(cache.similarFetchedAt("Inception").isEmpty());
+
+        cache.similar(cache.tmdbId("Inception", title -> 27205L), id -> List.of("Interstellar"));
+        assertEquals(OptionalLong.of(fetchedAt + Duration.ofHours(25).toMillis()), cache.similarFetchedAt("Inception"));
+    }
+
+    /**
+     * Verifies that entries keep their original fetch time across snapshots, so that
+     * rewriting the snapshot at every shutdown does not keep them alive.
+     */
+    @Test
+    void snapshot_shouldDropEntriesExpiredSinceFetch() {
+        UpstreamCache cache = newCache(10);
+        cache.tmdbId("Inception", title -> 27205L);
+        clock.advance(Duration.ofHours(12));
+        cache.tmdbId("Tenet", title -> 577922L);
+        cache.writeSnapshot();
+
+        clock.advance(Duration.ofHours(6));
+        UpstreamCache restarted = newCache(10);
+        restarted.loadSnapshot();
+        assertEquals(2, restarted.size());
+        restarted.writeSnapshot();
+
+        clock.advance(Duration.ofHours(7));
+        UpstreamCache restored = newCache(10);
+        restored.loadSnapshot();
+
+        assertEquals(1, restored.size());
+        assertEquals(577922L, restored.tmdbId("Tenet", title -> fail("not cached")));
+    }
+
+    /**
+     * Verifies that a truncated snapshot is skipped and leaves the cache empty.
+     */
+    @Test
+    void snapshot_shouldIgnoreCorruptFile() throws Exception {
+        UpstreamCache cache = newCache(10);
+        cache.movie("Inception", this::fetchMovie);
+        cache.tmdbId("Inception", title -> 27205L);
+        cache.writeSnapshot();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 4));
+
+        UpstreamCache restored = newCache(10);
+        restored.loadSnapshot();
+
+        assertEquals(0, restored.size());
+    }
+
+    private UpstreamCache newCache(int maxEntries) {
+        return new UpstreamCache(maxEntries, snapshot.toString(), Duration.ofDays(1), clock);
+    }
+
+    private Movie fetchMovie(String title) {
+        calls.incrementAndGet();
+        return Movie.builder().title("Inception").director("Nolan").release_year("2010").imdbId("tt1375666").build();
+    }
+}
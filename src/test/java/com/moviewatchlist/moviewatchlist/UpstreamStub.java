@@ -0,0 +1,332 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the OMDb API, the TMDB API and the TMDB image CDN.
+ * <p>
+ * All three upstreams are served from one port under different prefixes:
+ * <ul>
+ *     <li>{@code /omdb} – OMDb title lookup</li>
+ *     <li>{@code /tmdb/3} – TMDB search, images and similar-movies endpoints</li>
+ *     <li>{@code /img/t/p/w780} – image downloads (a generated JPEG poster)</li>
+ * </ul>
+ * Every upstream has its own {@link Latency} distribution, and each response can be
+ * replaced by an HTTP 500 or an HTTP 429 with a configurable probability.
+ * Point the application at it with {@link #applicationArguments()}.
+ */
+public class UpstreamStub implements AutoCloseable {
+
+    public static final String OMDB = "omdb";
+    public static final String TMDB = "tmdb";
+    public static final String CDN = "cdn";
+
+    static {
+        // The JDK server closes keep-alive connections beyond 200 idle ones, which pooled clients
+        // only notice when they reuse them; keep them open like a real API front end would
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+        }
+    }
+
+    private static final Pattern TMDB_MOVIE = Pattern.compile("/tmdb/3/movie/(\\d+)/(images|similar)");
+
+    private final Config config;
+    private final HttpServer server;
+    private final Executor executor = stubExecutor();
+    private final byte[] poster;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> peakInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the stub on a free local port.
+     *
+     * @param config latency and failure injection settings
+     * @throws IOException if the server cannot be started
+     */
+    public UpstreamStub(Config config) throws IOException {
+        this.config = config;
+        this.poster = renderPoster(config.posterWidth);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/omdb", exchange -> handle(exchange, OMDB, config.omdbLatency, this::omdb));
+        server.createContext("/tmdb", exchange -> handle(exchange, TMDB, config.tmdbLatency, this::tmdb));
+        server.createContext("/img", exchange -> handle(exchange, CDN, config.cdnLatency, this::image));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns command-line arguments that point the application's clients at this stub.
+     *
+     * @return Spring Boot {@code --property=value} arguments
+     */
+    public String[] applicationArguments() {
+        String base = "http://localhost:" + server.getAddress().getPort();
+        return new String[] {
+                "--omdb.api.base-url=" + base + "/omdb",
+                "--tmdb.api.base-url=" + base + "/tmdb/3",
+                "--tmdb.image.base-url=" + base + "/img/t/p/w780"
+        };
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public long throttled() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns the highest number of requests to one upstream that were being served at the same time.
+     *
+     * @param upstream {@link #OMDB}, {@link #TMDB} or {@link #CDN}
+     */
+    public int peakInFlight(String upstream) {
+        return counter(peakInFlight, upstream).get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Serves each request on its own virtual thread when running on Java 21+,
+     * so that the stub itself does not limit concurrency.
+     */
+    private static Executor stubExecutor() {
+        try {
+            return new VirtualThreadTaskExecutor("stub-");
+        } catch (UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static AtomicInteger counter(Map<String, AtomicInteger> counters, String upstream) {
+        return counters.computeIfAbsent(upstream, key -> new AtomicInteger());
+    }
+
+    private void handle(HttpExchange exchange, String upstream, Latency latency, Handler handler) throws IOException {
+        requests.incrementAndGet();
+        AtomicInteger current = counter(inFlight, upstream);
+        counter(peakInFlight, upstream).accumulateAndGet(current.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latency.sample());
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < config.throttleRate) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, 429, "application/json", "{\"status_message\":\"Too Many Requests\"}".getBytes());
+            } else if (roll < config.throttleRate + config.errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, "application/json", "{\"status_message\":\"Internal error\"}".getBytes());
+            } else {
+                handler.handle(exchange);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            current.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void omdb(HttpExchange exchange) throws IOException {
+        String title = queryParam(exchange, "t").replace('+', ' ');
+        String json = String.format(
+                "{\"Title\":\"%s\",\"Year\":\"%d\",\"Director\":\"Director %d\",\"Genre\":\"Drama\","
+                        + "\"imdbID\":\"tt%07d\",\"Response\":\"True\"}",
+                title, 1950 + Math.floorMod(title.hashCode(), 70), Math.floorMod(title.hashCode(), 200),
+                Math.floorMod(title.toLowerCase().hashCode(), 10_000_000));
+        send(exchange, 200, "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void tmdb(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.endsWith("/search/movie")) {
+            long id = Math.floorMod(queryParam(exchange, "query").hashCode(), 1_000_000) + 1;
+            send(exchange, 200, "application/json",
+                    ("{\"page\":1,\"results\":[{\"id\":" + id + "}],\"total_results\":1}").getBytes());
+            return;
+        }
+
+        Matcher matcher = TMDB_MOVIE.matcher(path);
+        if (!matcher.matches()) {
+            send(exchange, 404, "application/json", "{}".getBytes());
+            return;
+        }
+
+        long id = Long.parseLong(matcher.group(1));
+        StringBuilder json = new StringBuilder();
+        if (matcher.group(2).equals("images")) {
+            // Real responses list many images; the client should only read the first few
+            json.append("{\"backdrops\":[");
+            appendImages(json, id, "b", config.imagesPerResponse);
+            json.append("],\"id\":").append(id).append(",\"posters\":[");
+            appendImages(json, id, "p", config.imagesPerResponse);
+            json.append("]}");
+        } else {
+            json.append("{\"page\":1,\"results\":[");
+            for (int i = 0; i < 20; i++) {
+                json.append(i == 0 ? "" : ",")
+                        .append("{\"id\":").append(id * 100 + i)
+                        .append(",\"title\":\"Movie ").append((id + i) % 10_000).append("\"}");
+            }
+            json.append("]}");
+        }
+        send(exchange, 200, "application/json", json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void image(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "image/jpeg", poster);
+    }
+
+    private static void appendImages(StringBuilder json, long id, String kind, int count) {
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"aspect_ratio\":0.667,\"height\":1500,\"width\":1000,\"file_path\":\"/")
+                    .append(kind).append(id).append('_').append(i).append(".jpg\"}");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return "";
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static byte[] renderPoster(int width) throws IOException {
+        int height = width * 3 / 2;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new Color(40, 60, 120));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Log-normal latency distribution described by its median and 99th percentile.
+     *
+     * @param medianMillis median latency in milliseconds
+     * @param p99Millis    99th percentile latency in milliseconds
+     */
+    public record Latency(long medianMillis, long p99Millis) {
+
+        private static final double Z_99 = 2.326;
+
+        /**
+         * Parses {@code "median/p99"} (e.g. {@code "80/400"}), or a single number for a fixed latency.
+         *
+         * @param spec latency specification in milliseconds
+         * @return the parsed distribution
+         */
+        public static Latency parse(String spec) {
+            String[] parts = spec.split("/");
+            long median = Long.parseLong(parts[0].trim());
+            return new Latency(median, parts.length > 1 ? Long.parseLong(parts[1].trim()) : median);
+        }
+
+        long sample() {
+            if (medianMillis <= 0) {
+                return 0;
+            }
+            double sigma = Math.log(Math.max(p99Millis, medianMillis) / (double) medianMillis) / Z_99;
+            double sample = medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+            return Math.round(sample);
+        }
+    }
+
+    /**
+     * Stub settings. Each value can be overridden with a system property, e.g.
+     * {@code -Dstub.latency.omdb=120/900 -Dstub.error-rate=0.01 -Dstub.throttle-rate=0.02}.
+     *
+     * @param omdbLatency       latency of OMDb responses
+     * @param tmdbLatency       latency of TMDB API responses
+     * @param cdnLatency        latency of image downloads
+     * @param errorRate         probability of an HTTP 500 response
+     * @param throttleRate      probability of an HTTP 429 response
+     * @param imagesPerResponse number of posters and backdrops listed per images response
+     * @param posterWidth       width in pixels of the JPEG served by the image CDN
+     */
+    public record Config(Latency omdbLatency, Latency tmdbLatency, Latency cdnLatency,
+                         double errorRate, double throttleRate, int imagesPerResponse, int posterWidth) {
+
+        /**
+         * Builds a configuration from system properties, falling back to realistic defaults.
+         *
+         * @return the stub configuration
+         */
+        public static Config fromSystemProperties() {
+            return new Config(
+                    Latency.parse(System.getProperty("stub.latency.omdb", "80/400")),
+                    Latency.parse(System.getProperty("stub.latency.tmdb", "60/300")),
+                    Latency.parse(System.getProperty("stub.latency.cdn", "30/200")),
+                    Double.parseDouble(System.getProperty("stub.error-rate", "0.0")),
+                    Double.parseDouble(System.getProperty("stub.throttle-rate", "0.0")),
+                    Integer.getInteger("stub.images-per-response", 200),
+                    Integer.getInteger("stub.poster-width", 780));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.moviewatchlist.moviewatchlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviewatchlist.dto.WatchlistEvent;
+import com.moviewatchlist.service.WatchlistEventBus;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link WatchlistEventBus}.
+ * Verifies per-user fan-out, resuming from a {@code Last-Event-ID}, the reset sent when
+ * missed events were dropped or the id is unknown, and disconnecting slow consumers and stuck writes.
+ */
+public class WatchlistEventBusTest {
+
+    private WatchlistEventBus bus;
+
+    /**
+     * Creates a bus that keeps 8 events per user, disconnects streams 4 events behind and
+     * keeps the streams of 2 users without subscribers.
+     */
+    @BeforeEach
+    void setup() {
+        bus = new WatchlistEventBus(new ObjectMapper(), 8, 4, 2, 2, Duration.ofHours(1), Duration.ofSeconds(10));
+    }
+
+    /**
+     * Verifies that a stream receives only its user's events, in order, with their ids.
+     */
+    @Test
+    void publish_shouldDeliverOnlyTheUsersEvents() throws Exception {
+        RecordingSink alice = new RecordingSink();
+        bus.subscribe("alice", null, alice);
+
+        bus.publish("alice", event(WatchlistEvent.Type.ADDED, 1L));
+        bus.publish("bob", event(WatchlistEvent.Type.ADDED, 2L));
+        bus.publish("alice", event(WatchlistEvent.Type.RATED, 1L));
+
+        assertEquals("1 added", alice.next());
+        assertEquals("2 rated", alice.next());
+        assertNull(alice.received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Verifies that a reconnecting client receives the events published after its last event id.
+     */
+    @Test
+    void subscribe_withLastEventId_shouldResume() throws Exception {
+        String lastEventId = firstEventId("alice");
+        bus.publish("alice", event(WatchlistEvent.Type.WATCHED, 1L));
+        bus.publish("alice", event(WatchlistEvent.Type.DELETED, 1L));
+
+        RecordingSink alice = new RecordingSink();
+        bus.subscribe("alice", lastEventId, alice);
+
+        assertEquals("2 watched", alice.next());
+        assertEquals("3 deleted", alice.next());
+    }
+
+    /**
+     * Verifies that a client whose missed events were dropped gets a reset, then the events still available.
+     */
+    @Test
+    void subscribe_afterDroppedEvents_shouldReset() throws Exception {
+        String lastEventId = firstEventId("alice");
+        for (long i = 2; i <= 10; i++) {
+            bus.publish("alice", event(WatchlistEvent.Type.RATED, i));
+        }
+
+        RecordingSink alice = new RecordingSink();
+        bus.subscribe("alice", lastEventId, alice);
+
+        assertEquals("reset", alice.next());
+        assertEquals("3 rated", alice.next());
+    }
+
+    /**
+     * Verifies that an event id issued by another instance, or by a stream that was evicted
+     * meanwhile, gets a reset instead of resuming at an unrelated position.
+     */
+    @Test
+    void subscribe_withUnknownLastEventId_shouldReset() throws Exception {
+        WatchlistEventBus other = new WatchlistEventBus(new ObjectMapper(), 8, 4, 2, 2,
+                Duration.ofHours(1), Duration.ofSeconds(10));
+        RecordingSink live = new RecordingSink();
+        other.subscribe("alice", null, live);
+        other.publish("alice", event(WatchlistEvent.Type.ADDED, 1L));
+        assertEquals("1 added", live.next());
+        bus.publish("alice", event(WatchlistEvent.Type.ADDED, 1L));
+        bus.publish("alice", event(WatchlistEvent.Type.RATED, 1L));
+
+        RecordingSink foreign = new RecordingSink();
+        bus.subscribe("alice", live.lastId, foreign);
+        assertEquals("reset", foreign.next());
+        assertNull(foreign.received.poll(100, TimeUnit.MILLISECONDS));
+
+        String evicted = firstEventId("carol");
+        bus.publish("bob", event(WatchlistEvent.Type.ADDED, 2L));
+        bus.publish("dave", event(WatchlistEvent.Type.ADDED, 3L));
+        RecordingSink carol = new RecordingSink();
+        bus.subscribe("carol", evicted, carol);
+        assertEquals("reset", carol.next());
+    }
+
+    /**
+     * Verifies that lag is counted in the subscriber's own events, so that a stream that is
+     * still sending is not disconnected because other users are busy.
+     */
+    @Test
+    void publish_shouldNotDisconnectForOtherUsersEvents() throws Exception {
+        BlockingSink alice = new BlockingSink();
+        bus.subscribe("alice", null, alice);
+        bus.publish("alice", event(WatchlistEvent.Type.RATED, 1L));
+        assertTrue(alice.sending.await(2, TimeUnit.SECONDS));
+
+        for (long i = 2; i <= 20; i++) {
+            bus.publish("bob", event(WatchlistEvent.Type.RATED, i));
+        }
+
+        assertEquals(1, bus.subscriberCount());
+        assertEquals(1, alice.closed.getCount());
+        alice.release.countDown();
+    }
+
+    /**
+     * Verifies that a stream whose client stops reading is disconnected once it falls too far behind.
+     */
+    @Test
+    void publish_shouldDisconnectSlowConsumer() throws Exception {
+        BlockingSink slow = new BlockingSink();
+        bus.subscribe("alice", null, slow);
+        bus.publish("alice", event(WatchlistEvent.Type.RATED, 1L));
+        assertTrue(slow.sending.await(2, TimeUnit.SECONDS));
+
+        // The event being sent counts as pending: three more keep the stream within the lag
+        for (long i = 2; i <= 4; i++) {
+            bus.publish("alice", event(WatchlistEvent.Type.RATED, i));
+        }
+        assertEquals(1, bus.subscriberCount());
+
+        bus.publish("alice", event(WatchlistEvent.Type.RATED, 5L));
+
+        assertTrue(slow.closed.await(2, TimeUnit.SECONDS));
+        assertEquals(0, bus.subscriberCount());
+        slow.release.countDown();
+    }
+
+    /**
+     * Verifies that a write exceeding the send timeout disconnects the stream, interrupts the
+     * writing thread and leaves the dispatcher free to serve other streams.
+     */
+    @Test
+    void publish_shouldTimeOutStuckWrite() throws Exception {
+        WatchlistEventBus small = new WatchlistEventBus(new ObjectMapper(), 8, 4, 2, 1,
+                Duration.ofHours(1), Duration.ofMillis(100));
+        BlockingSink stuck = new BlockingSink();
+        RecordingSink bob = new RecordingSink();
+        small.subscribe("alice", null, stuck);
+        small.subscribe("bob", null, bob);
+
+        small.publish("alice", event(WatchlistEvent.Type.ADDED, 1L));
+        assertTrue(stuck.sending.await(2, TimeUnit.SECONDS));
+        small.publish("bob", event(WatchlistEvent.Type.ADDED, 2L));
+
+        assertTrue(stuck.closed.await(2, TimeUnit.SECONDS));
+        assertTrue(stuck.interrupted.await(2, TimeUnit.SECONDS));
+        assertEquals("1 added", bob.next());
+        assertEquals(1, small.subscriberCount());
+    }
+
+    private static WatchlistEvent event(WatchlistEvent.Type type, Long id) {
+        return WatchlistEvent.builder().type(type).id(id).build();
+    }
+
+    /**
+     * Publishes a first event for the user and returns its id, as received by a client
+     * that then disconnects.
+     */
+    private String firstEventId(String userId) throws Exception {
+        RecordingSink live = new RecordingSink();
+        WatchlistEventBus.Subscription subscription = bus.subscribe(userId, null, live);
+        bus.publish(userId, event(WatchlistEvent.Type.ADDED, 1L));
+        assertEquals("1 added", live.next());
+        subscription.cancel();
+        return live.lastId;
+    }
+
+
+    private static class RecordingSink implements WatchlistEventBus.Sink {
+
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile String lastId;
+
+        @Override
+        public void send(WatchlistEventBus.Event event) throws java.io.IOException {
+            lastId = event.id();
+            received.add(event.seq() + " " + event.name());
+        }
+
+        @Override
+        public void reset() {
+            received.add("reset");
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            return received.poll(2, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * A sink whose client stops reading: every send blocks until released or interrupted.
+     */
+    private static class BlockingSink extends RecordingSink {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(WatchlistEventBus.Event event) throws java.io.IOException {
+            super.send(event);
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new java.io.InterruptedIOException("client write interrupted");
+            }
+        }
+    }
+}